@@ -0,0 +1,112 @@
+package cache;
+
+import org.example.cache.EvictionStrategy;
+import org.example.cache.TtlCache;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.springframework.cache.Cache;
+
+import java.time.Duration;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Read paths of {@link TtlCache} at 1, 4 and all available threads. {@code get} only ever hits;
+ * {@code getWithLoader} draws keys from twice the cache capacity, so about half the calls miss,
+ * run the loader and evict.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@State(Scope.Benchmark)
+public class TtlCacheBenchmark {
+
+    private static final int CAPACITY = 1024;
+    private static final int MASK = 2 * CAPACITY - 1;
+
+    @Param({"LRU", "TINY_LFU"})
+    public EvictionStrategy evictionStrategy;
+
+    private TtlCache cache;
+    private String[] keys;
+    private Object value;
+    private Callable<Object> loader;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        cache = TtlCache.builder("benchmark", Duration.ofHours(1))
+                .maximumSize(CAPACITY)
+                .evictionStrategy(evictionStrategy)
+                .build();
+        keys = new String[2 * CAPACITY];
+        for (int i = 0; i < keys.length; i++) {
+            keys[i] = "K" + i;
+        }
+        value = new Object();
+        loader = () -> value;
+        for (int i = 0; i < CAPACITY; i++) {
+            cache.put(keys[i], value);
+        }
+    }
+
+    @State(Scope.Thread)
+    public static class Cursor {
+        int next = ThreadLocalRandom.current().nextInt();
+
+        int advance() {
+            return next++;
+        }
+    }
+
+    @Benchmark
+    @Threads(1)
+    public Cache.ValueWrapper get_1(Cursor cursor) {
+        return hit(cursor);
+    }
+
+    @Benchmark
+    @Threads(4)
+    public Cache.ValueWrapper get_4(Cursor cursor) {
+        return hit(cursor);
+    }
+
+    @Benchmark
+    @Threads(Threads.MAX)
+    public Cache.ValueWrapper get_max(Cursor cursor) {
+        return hit(cursor);
+    }
+
+    @Benchmark
+    @Threads(1)
+    public Object getWithLoader_1(Cursor cursor) {
+        return load(cursor);
+    }
+
+    @Benchmark
+    @Threads(4)
+    public Object getWithLoader_4(Cursor cursor) {
+        return load(cursor);
+    }
+
+    @Benchmark
+    @Threads(Threads.MAX)
+    public Object getWithLoader_max(Cursor cursor) {
+        return load(cursor);
+    }
+
+    private Cache.ValueWrapper hit(Cursor cursor) {
+        return cache.get(keys[cursor.advance() & (CAPACITY - 1)]);
+    }
+
+    private Object load(Cursor cursor) {
+        return cache.get(keys[cursor.advance() & MASK], loader);
+    }
+}
@@ -0,0 +1,107 @@
+package controller;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.example.model.CurrencyOrdinals;
+import org.example.model.RateTable;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+
+import java.time.LocalDateTime;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The body-producing paths of {@code CurrencyController}: a fresh table serialized through Jackson
+ * (what the batch endpoint does), the first and repeated {@link RateTable#toJsonBytes()} and gzip calls
+ * of the single-base endpoint, and the ETag derivation.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@State(Scope.Benchmark)
+public class RateTableSerializationBenchmark {
+
+    @Param({"30", "170"})
+    public int quotes;
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private CurrencyOrdinals currencyOrdinals;
+    private double[] rates;
+    private RateTable memoized;
+    private Map<String, RateTable> batch;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        String[] codes = new String[quotes];
+        for (int i = 0; i < quotes; i++) {
+            codes[i] = String.valueOf(new char[]{(char) ('A' + i / 26 % 26), (char) ('A' + i % 26), 'Q'});
+        }
+        currencyOrdinals = new CurrencyOrdinals(List.of(codes), quotes);
+        int[] ordinals = new int[quotes];
+        for (int i = 0; i < quotes; i++) {
+            ordinals[i] = currencyOrdinals.intern(codes[i]);
+        }
+        rates = RateTable.newRates(currencyOrdinals.size());
+        for (int i = 0; i < quotes; i++) {
+            rates[ordinals[i]] = 1.2345678 + i;
+        }
+        memoized = freshTable();
+        memoized.toGzippedJsonBytes();
+        memoized.getETag();
+        batch = new LinkedHashMap<>();
+        for (String base : new String[]{"USD", "EUR", "GBP", "JPY", "CHF"}) {
+            batch.put(base, new RateTable(currencyOrdinals, base, LocalDateTime.now(), rates));
+        }
+    }
+
+    private RateTable freshTable() {
+        return new RateTable(currencyOrdinals, "USD", LocalDateTime.now(), rates);
+    }
+
+    @Benchmark
+    public byte[] objectMapperSingle() throws JsonProcessingException {
+        return objectMapper.writeValueAsBytes(freshTable());
+    }
+
+    @Benchmark
+    public byte[] objectMapperBatch() throws JsonProcessingException {
+        return objectMapper.writeValueAsBytes(batch);
+    }
+
+    @Benchmark
+    public byte[] toJsonBytesFirstCall() {
+        return freshTable().toJsonBytes();
+    }
+
+    @Benchmark
+    public byte[] toGzippedJsonBytesFirstCall() {
+        return freshTable().toGzippedJsonBytes();
+    }
+
+    @Benchmark
+    public String eTagFirstCall() {
+        return freshTable().getETag();
+    }
+
+    @Benchmark
+    @Threads(Threads.MAX)
+    public byte[] toJsonBytesMemoized_max() {
+        return memoized.toJsonBytes();
+    }
+
+    @Benchmark
+    @Threads(Threads.MAX)
+    public byte[] toGzippedJsonBytesMemoized_max() {
+        return memoized.toGzippedJsonBytes();
+    }
+}
@@ -0,0 +1,146 @@
+package service;
+
+import com.fasterxml.jackson.databind.node.JsonNodeFactory;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import org.example.cache.CacheNames;
+import org.example.cache.EvictionStrategy;
+import org.example.cache.RateTableWeigher;
+import org.example.cache.TtlCache;
+import org.example.entity.Currency;
+import org.example.entity.LatestExchangeRate;
+import org.example.model.Conversion;
+import org.example.model.CurrencyOrdinals;
+import org.example.model.RateTable;
+import org.example.repository.CurrencyRepository;
+import org.example.repository.ExchangeRateDailyRepository;
+import org.example.repository.ExchangeRateRepository;
+import org.example.repository.LatestExchangeRateRepository;
+import org.example.repository.SchedulerLeaseRepository;
+import org.example.service.CrossRateCalculator;
+import org.example.service.CurrencyService;
+import org.example.service.ExchangeRateService;
+import org.example.service.ExternalApiService;
+import org.example.service.LeaderElectionService;
+import org.example.service.RateDeltaCalculator;
+import org.example.service.RefreshPipeline;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.springframework.cache.Cache;
+import org.springframework.cache.support.SimpleCacheManager;
+import org.springframework.context.ApplicationEventPublisher;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * {@link ExchangeRateService} over the production cache configuration with mocked repositories.
+ * Hits measure the lookup path only; {@code getExchangeRateMiss} evicts first, so it also covers
+ * loading and decoding a 170-quote snapshot from the latest-rate projection (plus the cost of the mock).
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@State(Scope.Benchmark)
+public class ExchangeRateServiceBenchmark {
+
+    private static final int QUOTES = 170;
+    private static final BigDecimal AMOUNT = new BigDecimal("100");
+
+    private ExchangeRateService exchangeRateService;
+    private Cache exchangeRateCache;
+    private String[] codes;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        codes = new String[QUOTES];
+        List<Currency> currencies = new ArrayList<>(QUOTES);
+        ObjectNode rates = JsonNodeFactory.instance.objectNode();
+        for (int i = 0; i < QUOTES; i++) {
+            codes[i] = String.valueOf(new char[]{(char) ('A' + i / 26 % 26), (char) ('A' + i % 26), 'X'});
+            Currency currency = new Currency(codes[i]);
+            currency.setId((long) i + 1);
+            currencies.add(currency);
+            rates.put(codes[i], 1 + i / 100.0);
+        }
+
+        CurrencyOrdinals currencyOrdinals = new CurrencyOrdinals(List.of(codes), QUOTES);
+        CurrencyRepository currencyRepository = mock(CurrencyRepository.class);
+        when(currencyRepository.findAll()).thenReturn(currencies);
+        CurrencyService currencyService = new CurrencyService(currencyRepository, mock(ExternalApiService.class));
+        currencyService.rebuildCurrencyIndex();
+
+        LatestExchangeRateRepository latestExchangeRateRepository = mock(LatestExchangeRateRepository.class);
+        when(latestExchangeRateRepository.findByCurrency(any())).thenAnswer(invocation ->
+                new LatestExchangeRate(invocation.getArgument(0), 1L, rates, LocalDateTime.now()));
+
+        SimpleCacheManager cacheManager = new SimpleCacheManager();
+        cacheManager.setCaches(List.of(TtlCache.builder(CacheNames.EXCHANGE_RATES, Duration.ofHours(1))
+                .maximumWeight(256L * 1024 * 1024, new RateTableWeigher(true))
+                .evictionStrategy(EvictionStrategy.TINY_LFU)
+                .refreshAheadRatio(0.1)
+                .build()));
+        cacheManager.afterPropertiesSet();
+        exchangeRateCache = cacheManager.getCache(CacheNames.EXCHANGE_RATES);
+
+        exchangeRateService = new ExchangeRateService(mock(ExchangeRateRepository.class), latestExchangeRateRepository,
+                mock(ExchangeRateDailyRepository.class), currencyService,
+                mock(ExternalApiService.class), new CrossRateCalculator(currencyOrdinals, false, "EUR", 10), mock(RefreshPipeline.class),
+                new RateDeltaCalculator(currencyOrdinals, 0, false), currencyOrdinals,
+                new LeaderElectionService(mock(SchedulerLeaseRepository.class), false, 30000, mock(ApplicationEventPublisher.class)),
+                cacheManager, mock(ApplicationEventPublisher.class));
+        for (String code : codes) {
+            exchangeRateService.getExchangeRate(code);
+        }
+    }
+
+    @Benchmark
+    @Threads(1)
+    public RateTable getExchangeRateHit_1() {
+        return exchangeRateService.getExchangeRate(randomCode());
+    }
+
+    @Benchmark
+    @Threads(Threads.MAX)
+    public RateTable getExchangeRateHit_max() {
+        return exchangeRateService.getExchangeRate(randomCode());
+    }
+
+    @Benchmark
+    @Threads(1)
+    public RateTable getExchangeRateMiss_1() {
+        String code = randomCode();
+        exchangeRateCache.evict(code);
+        return exchangeRateService.getExchangeRate(code);
+    }
+
+    @Benchmark
+    @Threads(1)
+    public Conversion convert_1() {
+        return exchangeRateService.convert(randomCode(), randomCode(), AMOUNT);
+    }
+
+    @Benchmark
+    @Threads(Threads.MAX)
+    public Conversion convert_max() {
+        return exchangeRateService.convert(randomCode(), randomCode(), AMOUNT);
+    }
+
+    private String randomCode() {
+        return codes[ThreadLocalRandom.current().nextInt(QUOTES)];
+    }
+}
@@ -0,0 +1,121 @@
+package loadtest;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.example.CurrencyApplication;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.testcontainers.containers.PostgreSQLContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.junit.jupiter.api.Assertions.fail;
+
+/**
+ * Runs the application against a Postgres container and {@link StubExchangeRateApi}, with the refresh
+ * scheduler firing every {@code loadtest.cycle.ms}, and drives {@code /currencies} and
+ * {@code /currencies/{code}/rates} for {@code loadtest.windows} windows of one cycle each.
+ * Run with {@code ./gradlew loadTest}; needs Docker.
+ */
+@SpringBootTest(classes = CurrencyApplication.class, webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+@Testcontainers
+class CurrencyApiLoadTest {
+
+    private static final LoadTestSettings SETTINGS = LoadTestSettings.fromSystemProperties();
+
+    @Container
+    private static final PostgreSQLContainer<?> POSTGRES = new PostgreSQLContainer<>("postgres:15");
+
+    private static final StubExchangeRateApi UPSTREAM = new StubExchangeRateApi(SETTINGS.currencies(),
+            SETTINGS.upstreamLatencyMillis(), SETTINGS.upstreamJitterMillis(), SETTINGS.upstreamErrorRate()).start();
+
+    @DynamicPropertySource
+    static void properties(DynamicPropertyRegistry registry) {
+        registry.add("spring.datasource.url", () -> POSTGRES.getJdbcUrl() + "&reWriteBatchedInserts=true");
+        registry.add("spring.datasource.username", POSTGRES::getUsername);
+        registry.add("spring.datasource.password", POSTGRES::getPassword);
+        registry.add("external.api.url", () -> UPSTREAM.getBaseUrl() + "/latest");
+        registry.add("external.api.symbols.url", () -> UPSTREAM.getBaseUrl() + "/symbols");
+        registry.add("external.api.access_key", () -> "load-test");
+        registry.add("scheduler.rate", SETTINGS::cycleMillis);
+    }
+
+    @LocalServerPort
+    private int port;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @AfterAll
+    static void stopUpstream() {
+        UPSTREAM.stop();
+    }
+
+    @Test
+    void reportsLatencyAcrossRefreshCycles() throws Exception {
+        String baseUrl = "http://localhost:" + port;
+        awaitRatesAvailable(baseUrl);
+
+        List<String> codes = UPSTREAM.getCodes();
+        int ratesWeight = (int) Math.round(SETTINGS.ratesShare() * 100);
+        LoadDriver driver = new LoadDriver(baseUrl, SETTINGS.concurrency(), List.of(
+                new LoadDriver.Endpoint("/currencies", 100 - ratesWeight, () -> "/currencies"),
+                new LoadDriver.Endpoint("/currencies/{code}/rates", ratesWeight,
+                        () -> "/currencies/" + codes.get(ThreadLocalRandom.current().nextInt(codes.size())) + "/rates")));
+
+        List<LoadDriver.WindowReport> reports = driver.run(SETTINGS.windows(), Duration.ofMillis(SETTINGS.cycleMillis()),
+                this::completedRefreshCycles);
+
+        System.out.printf("%nLoad test: %d clients, %d currencies, upstream latency %d+%d ms, error rate %.3f%n",
+                SETTINGS.concurrency(), codes.size(), SETTINGS.upstreamLatencyMillis(), SETTINGS.upstreamJitterMillis(),
+                SETTINGS.upstreamErrorRate());
+        reports.forEach(report -> System.out.print(report.format()));
+        System.out.printf("Upstream: %d requests, %d failed%n", UPSTREAM.getRequests(), UPSTREAM.getErrors());
+
+        long served = reports.stream()
+                .flatMap(report -> report.endpoints().values().stream())
+                .mapToLong(report -> report.requests() - report.failures())
+                .sum();
+        assertTrue(served > 0, "no request succeeded");
+    }
+
+    private long completedRefreshCycles() {
+        Timer timer = meterRegistry.find("exchange.rates.refresh").timer();
+        return timer != null ? timer.count() : 0;
+    }
+
+    /**
+     * The first refresh runs a second after startup and loads the currency list; measuring before it
+     * finishes would only time 404s.
+     */
+    private static void awaitRatesAvailable(String baseUrl) throws Exception {
+        HttpClient client = HttpClient.newHttpClient();
+        HttpRequest request = HttpRequest.newBuilder(URI.create(baseUrl + "/currencies/USD/rates")).build();
+        long deadline = System.nanoTime() + Duration.ofMinutes(2).toNanos();
+        while (System.nanoTime() < deadline) {
+            try {
+                if (client.send(request, HttpResponse.BodyHandlers.discarding()).statusCode() == 200) {
+                    return;
+                }
+            } catch (Exception e) {
+                // not up yet
+            }
+            Thread.sleep(500);
+        }
+        fail("Exchange rates did not become available");
+    }
+}
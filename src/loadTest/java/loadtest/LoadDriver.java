@@ -0,0 +1,163 @@
+package loadtest;
+
+import org.HdrHistogram.Histogram;
+import org.HdrHistogram.Recorder;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.LongSupplier;
+import java.util.function.Supplier;
+
+/**
+ * Closed-loop HTTP load generator: {@code concurrency} virtual threads each issue one request at a time,
+ * choosing the endpoint by weight. Latencies go to one HdrHistogram {@link Recorder} per endpoint and are
+ * reported per window, so each window can be lined up with the refresh cycles that ran during it.
+ * Being closed-loop, a stall slows the request rate instead of queueing requests, which understates the
+ * tail under saturation; compare throughput between windows to spot that.
+ */
+class LoadDriver {
+
+    private static final long HIGHEST_TRACKABLE_NANOS = TimeUnit.SECONDS.toNanos(60);
+
+    private final String baseUrl;
+    private final int concurrency;
+    private final List<Endpoint> endpoints;
+    private final int totalWeight;
+    private final HttpClient httpClient;
+
+    LoadDriver(String baseUrl, int concurrency, List<Endpoint> endpoints) {
+        this.baseUrl = baseUrl;
+        this.concurrency = concurrency;
+        this.endpoints = endpoints;
+        this.totalWeight = endpoints.stream().mapToInt(Endpoint::weight).sum();
+        this.httpClient = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_1_1)
+                .connectTimeout(Duration.ofSeconds(5))
+                .executor(Executors.newVirtualThreadPerTaskExecutor())
+                .build();
+    }
+
+    /**
+     * @param refreshCycles running count of completed refresh cycles, sampled at every window boundary
+     */
+    List<WindowReport> run(int windows, Duration windowLength, LongSupplier refreshCycles) throws InterruptedException {
+        Map<String, Recorder> recorders = new LinkedHashMap<>();
+        Map<String, LongAdder> failures = new LinkedHashMap<>();
+        for (Endpoint endpoint : endpoints) {
+            recorders.put(endpoint.name(), new Recorder(HIGHEST_TRACKABLE_NANOS, 3));
+            failures.put(endpoint.name(), new LongAdder());
+        }
+        List<WindowReport> reports = new ArrayList<>(windows);
+        ExecutorService workers = Executors.newVirtualThreadPerTaskExecutor();
+        try {
+            for (int i = 0; i < concurrency; i++) {
+                workers.execute(() -> {
+                    while (!Thread.currentThread().isInterrupted()) {
+                        Endpoint endpoint = pick();
+                        long start = System.nanoTime();
+                        boolean ok = send(endpoint.nextPath());
+                        recorders.get(endpoint.name()).recordValue(Math.min(System.nanoTime() - start, HIGHEST_TRACKABLE_NANOS));
+                        if (!ok) {
+                            failures.get(endpoint.name()).increment();
+                        }
+                    }
+                });
+            }
+            long cyclesBefore = refreshCycles.getAsLong();
+            recorders.values().forEach(Recorder::reset);
+            failures.values().forEach(LongAdder::reset);
+            for (int window = 1; window <= windows; window++) {
+                Thread.sleep(windowLength.toMillis());
+                long cycles = refreshCycles.getAsLong();
+                Map<String, EndpointReport> endpointReports = new LinkedHashMap<>();
+                for (Endpoint endpoint : endpoints) {
+                    Histogram histogram = recorders.get(endpoint.name()).getIntervalHistogram();
+                    endpointReports.put(endpoint.name(), EndpointReport.of(histogram, failures.get(endpoint.name()).sumThenReset(), windowLength));
+                }
+                reports.add(new WindowReport(window, cycles - cyclesBefore, endpointReports));
+                cyclesBefore = cycles;
+            }
+        } finally {
+            workers.shutdownNow();
+            workers.awaitTermination(10, TimeUnit.SECONDS);
+        }
+        return reports;
+    }
+
+    private Endpoint pick() {
+        int ticket = ThreadLocalRandom.current().nextInt(totalWeight);
+        for (Endpoint endpoint : endpoints) {
+            ticket -= endpoint.weight();
+            if (ticket < 0) {
+                return endpoint;
+            }
+        }
+        return endpoints.get(endpoints.size() - 1);
+    }
+
+    private boolean send(String path) {
+        HttpRequest request = HttpRequest.newBuilder(URI.create(baseUrl + path))
+                .timeout(Duration.ofSeconds(30))
+                .header("Accept-Encoding", "gzip")
+                .GET()
+                .build();
+        try {
+            HttpResponse<Void> response = httpClient.send(request, HttpResponse.BodyHandlers.discarding());
+            return response.statusCode() < 400;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return true;
+        } catch (Exception e) {
+            return false;
+        }
+    }
+
+    /**
+     * @param paths picks the concrete path of each request, e.g. a random base currency
+     */
+    record Endpoint(String name, int weight, Supplier<String> paths) {
+
+        String nextPath() {
+            return paths.get();
+        }
+    }
+
+    record EndpointReport(long requests, long failures, double throughput,
+                          double p50Millis, double p99Millis, double p999Millis, double maxMillis) {
+
+        static EndpointReport of(Histogram histogram, long failures, Duration windowLength) {
+            return new EndpointReport(histogram.getTotalCount(), failures,
+                    histogram.getTotalCount() / (windowLength.toMillis() / 1000.0),
+                    millis(histogram.getValueAtPercentile(50)), millis(histogram.getValueAtPercentile(99)),
+                    millis(histogram.getValueAtPercentile(99.9)), millis(histogram.getMaxValue()));
+        }
+
+        private static double millis(long nanos) {
+            return nanos / 1_000_000.0;
+        }
+    }
+
+    record WindowReport(int window, long refreshCycles, Map<String, EndpointReport> endpoints) {
+
+        String format() {
+            StringBuilder out = new StringBuilder(String.format("window %d (%d refresh cycles)%n", window, refreshCycles));
+            endpoints.forEach((name, report) -> out.append(String.format(
+                    "  %-28s %8d req %6d failed %9.1f req/s  p50 %7.2f ms  p99 %7.2f ms  p99.9 %7.2f ms  max %7.2f ms%n",
+                    name, report.requests(), report.failures(), report.throughput(),
+                    report.p50Millis(), report.p99Millis(), report.p999Millis(), report.maxMillis())));
+            return out.toString();
+        }
+    }
+}
@@ -0,0 +1,22 @@
+package loadtest;
+
+/**
+ * Knobs of the load harness, read from {@code loadtest.*} system properties; the Gradle {@code loadTest}
+ * task forwards {@code -Ploadtest.*} project properties.
+ */
+record LoadTestSettings(int concurrency, int windows, long cycleMillis, int currencies,
+                        long upstreamLatencyMillis, long upstreamJitterMillis, double upstreamErrorRate,
+                        double ratesShare) {
+
+    static LoadTestSettings fromSystemProperties() {
+        return new LoadTestSettings(
+                Integer.getInteger("loadtest.concurrency", 64),
+                Integer.getInteger("loadtest.windows", 6),
+                Long.getLong("loadtest.cycle.ms", 10_000),
+                Integer.getInteger("loadtest.currencies", 170),
+                Long.getLong("loadtest.upstream.latency.ms", 50),
+                Long.getLong("loadtest.upstream.jitter.ms", 50),
+                Double.parseDouble(System.getProperty("loadtest.upstream.error.rate", "0.02")),
+                Double.parseDouble(System.getProperty("loadtest.rates.share", "0.9")));
+    }
+}
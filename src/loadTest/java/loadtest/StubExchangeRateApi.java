@@ -0,0 +1,175 @@
+package loadtest;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Currency;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeSet;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Local stand-in for the exchangeratesapi.io {@code /v1/symbols} and {@code /v1/latest} endpoints.
+ * EUR-relative rates take a small random walk on every {@code latest} call, so each refresh cycle
+ * publishes real changes. Every response is delayed by {@code latency + U(0, jitter)}; a share of
+ * {@code latest} calls fails, alternating between HTTP 500 and a {@code success: false} body.
+ */
+class StubExchangeRateApi {
+
+    private final List<String> codes;
+    private final double[] eurRates;
+    private final ReentrantLock ratesLock = new ReentrantLock();
+    private final long latencyMillis;
+    private final long jitterMillis;
+    private final double errorRate;
+    private final AtomicLong requests = new AtomicLong();
+    private final AtomicLong errors = new AtomicLong();
+    private HttpServer server;
+
+    StubExchangeRateApi(int currencies, long latencyMillis, long jitterMillis, double errorRate) {
+        TreeSet<String> available = new TreeSet<>();
+        for (Currency currency : Currency.getAvailableCurrencies()) {
+            available.add(currency.getCurrencyCode());
+        }
+        List<String> selected = new ArrayList<>(List.of("EUR", "USD", "GBP", "JPY", "CHF"));
+        for (String code : available) {
+            if (selected.size() >= currencies) {
+                break;
+            }
+            if (!selected.contains(code)) {
+                selected.add(code);
+            }
+        }
+        this.codes = List.copyOf(selected);
+        this.eurRates = new double[codes.size()];
+        for (int i = 0; i < eurRates.length; i++) {
+            eurRates[i] = i == 0 ? 1.0 : 0.5 + ThreadLocalRandom.current().nextDouble(200);
+        }
+        this.latencyMillis = latencyMillis;
+        this.jitterMillis = jitterMillis;
+        this.errorRate = errorRate;
+    }
+
+    StubExchangeRateApi start() {
+        try {
+            server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        } catch (IOException e) {
+            throw new IllegalStateException("Cannot start stub upstream", e);
+        }
+        server.setExecutor(Executors.newVirtualThreadPerTaskExecutor());
+        server.createContext("/v1/symbols", this::symbols);
+        server.createContext("/v1/latest", this::latest);
+        server.start();
+        return this;
+    }
+
+    void stop() {
+        server.stop(0);
+    }
+
+    String getBaseUrl() {
+        return "http://127.0.0.1:" + server.getAddress().getPort() + "/v1";
+    }
+
+    List<String> getCodes() {
+        return codes;
+    }
+
+    long getRequests() {
+        return requests.get();
+    }
+
+    long getErrors() {
+        return errors.get();
+    }
+
+    private void symbols(HttpExchange exchange) throws IOException {
+        delay();
+        StringBuilder body = new StringBuilder("{\"success\":true,\"symbols\":{");
+        for (int i = 0; i < codes.size(); i++) {
+            body.append(i > 0 ? "," : "").append('"').append(codes.get(i)).append("\":\"Currency ").append(codes.get(i)).append('"');
+        }
+        respond(exchange, 200, body.append("}}").toString());
+    }
+
+    private void latest(HttpExchange exchange) throws IOException {
+        delay();
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        if (random.nextDouble() < errorRate) {
+            if (errors.getAndIncrement() % 2 == 0) {
+                respond(exchange, 500, "{\"message\":\"stubbed upstream failure\"}");
+            } else {
+                respond(exchange, 200, "{\"success\":false,\"error\":{\"code\":104,\"type\":\"usage_limit_reached\"}}");
+            }
+            return;
+        }
+        String base = queryParameters(exchange.getRequestURI().getRawQuery()).getOrDefault("base", "EUR");
+        int baseIndex = codes.indexOf(base);
+        if (baseIndex < 0) {
+            respond(exchange, 200, "{\"success\":false,\"error\":{\"code\":201,\"type\":\"invalid_base_currency\"}}");
+            return;
+        }
+        double[] snapshot;
+        ratesLock.lock();
+        try {
+            for (int i = 1; i < eurRates.length; i++) {
+                eurRates[i] *= 1 + (random.nextDouble() - 0.5) * 0.002;
+            }
+            snapshot = eurRates.clone();
+        } finally {
+            ratesLock.unlock();
+        }
+        StringBuilder body = new StringBuilder(32 * codes.size())
+                .append("{\"success\":true,\"timestamp\":").append(System.currentTimeMillis() / 1000)
+                .append(",\"base\":\"").append(base).append("\",\"rates\":{");
+        for (int i = 0; i < codes.size(); i++) {
+            body.append(i > 0 ? "," : "").append('"').append(codes.get(i)).append("\":").append(snapshot[i] / snapshot[baseIndex]);
+        }
+        respond(exchange, 200, body.append("}}").toString());
+    }
+
+    private void delay() {
+        requests.incrementAndGet();
+        long millis = latencyMillis + (jitterMillis > 0 ? ThreadLocalRandom.current().nextLong(jitterMillis + 1) : 0);
+        if (millis > 0) {
+            try {
+                Thread.sleep(millis);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+
+    private static Map<String, String> queryParameters(String query) {
+        if (query == null) {
+            return Map.of();
+        }
+        Map<String, String> parameters = new HashMap<>();
+        for (String pair : query.split("&")) {
+            int separator = pair.indexOf('=');
+            if (separator > 0) {
+                parameters.put(pair.substring(0, separator), pair.substring(separator + 1));
+            }
+        }
+        return parameters;
+    }
+
+    private static void respond(HttpExchange exchange, int status, String body) throws IOException {
+        byte[] bytes = body.getBytes(StandardCharsets.UTF_8);
+        exchange.getResponseHeaders().add("Content-Type", "application/json");
+        exchange.sendResponseHeaders(status, bytes.length);
+        try (OutputStream out = exchange.getResponseBody()) {
+            out.write(bytes);
+        }
+    }
+}
@@ -0,0 +1,14 @@
+package org.example.cache;
+
+/**
+ * Binary form of the values a {@link TwoLevelCache} shares through its {@link SharedCacheStore}.
+ * Values of other types stay in the local level only.
+ */
+public interface CacheCodec<T> {
+
+    Class<T> type();
+
+    byte[] encode(T value);
+
+    T decode(byte[] bytes);
+}
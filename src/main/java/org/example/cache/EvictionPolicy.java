@@ -0,0 +1,24 @@
+package org.example.cache;
+
+import org.springframework.lang.Nullable;
+
+/**
+ * Decides which entry leaves a bounded {@link TtlCache} when it grows past its maximum weight.
+ * All methods are called while the cache holds its eviction lock, so implementations do not
+ * need to be thread-safe.
+ */
+public interface EvictionPolicy {
+
+    void onAccess(Object key);
+
+    void onInsert(Object key);
+
+    void onRemove(Object key);
+
+    /**
+     * Picks the key to evict. May return {@code candidate} itself to reject the entry that was just written,
+     * or {@code null} if the policy tracks no keys.
+     */
+    @Nullable
+    Object selectVictim(Object candidate);
+}
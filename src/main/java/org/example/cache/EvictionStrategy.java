@@ -0,0 +1,18 @@
+package org.example.cache;
+
+public enum EvictionStrategy {
+    LRU {
+        @Override
+        public EvictionPolicy create(long expectedEntries) {
+            return new LruEvictionPolicy();
+        }
+    },
+    TINY_LFU {
+        @Override
+        public EvictionPolicy create(long expectedEntries) {
+            return new TinyLfuEvictionPolicy(expectedEntries);
+        }
+    };
+
+    public abstract EvictionPolicy create(long expectedEntries);
+}
@@ -0,0 +1,71 @@
+package org.example.cache;
+
+/**
+ * Count-min sketch of 4-bit saturating counters estimating how often a key was seen recently.
+ * Counters are halved once the number of increments reaches a sample size proportional to the
+ * cache capacity, so popularity ages out over time.
+ */
+final class FrequencySketch {
+
+    private static final long[] SEEDS = {
+            0xc3a5c85c97cb3127L, 0xb492b66fbe98f273L, 0x9ae16a3b2f90404fL, 0xcbf29ce484222325L
+    };
+    private static final int MAX_COUNT = 15;
+    private static final int MAX_TABLE_SIZE = 1 << 24;
+
+    private final byte[] table;
+    private final int mask;
+    private final long sampleSize;
+    private long additions;
+
+    FrequencySketch(long expectedEntries) {
+        long capacity = Math.max(16, expectedEntries);
+        int size = (int) Math.min(MAX_TABLE_SIZE, Long.highestOneBit(capacity * 16 - 1) << 1);
+        this.table = new byte[size];
+        this.mask = size - 1;
+        this.sampleSize = capacity * 10;
+    }
+
+    void increment(Object key) {
+        int hash = spread(key.hashCode());
+        boolean added = false;
+        for (int i = 0; i < SEEDS.length; i++) {
+            int index = indexOf(hash, i);
+            if (table[index] < MAX_COUNT) {
+                table[index]++;
+                added = true;
+            }
+        }
+        if (added && ++additions >= sampleSize) {
+            reset();
+        }
+    }
+
+    int frequency(Object key) {
+        int hash = spread(key.hashCode());
+        int frequency = MAX_COUNT;
+        for (int i = 0; i < SEEDS.length; i++) {
+            frequency = Math.min(frequency, table[indexOf(hash, i)]);
+        }
+        return frequency;
+    }
+
+    private void reset() {
+        for (int i = 0; i < table.length; i++) {
+            table[i] = (byte) (table[i] >>> 1);
+        }
+        additions /= 2;
+    }
+
+    private int indexOf(int hash, int i) {
+        long h = (hash + SEEDS[i]) * SEEDS[i];
+        h += h >>> 32;
+        return (int) h & mask;
+    }
+
+    private static int spread(int x) {
+        x = ((x >>> 16) ^ x) * 0x45d9f3b;
+        x = ((x >>> 16) ^ x) * 0x45d9f3b;
+        return (x >>> 16) ^ x;
+    }
+}
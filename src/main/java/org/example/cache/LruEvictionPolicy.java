@@ -0,0 +1,30 @@
+package org.example.cache;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+
+class LruEvictionPolicy implements EvictionPolicy {
+
+    private final LinkedHashMap<Object, Boolean> order = new LinkedHashMap<>(16, 0.75f, true);
+
+    @Override
+    public void onAccess(Object key) {
+        order.get(key);
+    }
+
+    @Override
+    public void onInsert(Object key) {
+        order.put(key, Boolean.TRUE);
+    }
+
+    @Override
+    public void onRemove(Object key) {
+        order.remove(key);
+    }
+
+    @Override
+    public Object selectVictim(Object candidate) {
+        Iterator<Object> eldest = order.keySet().iterator();
+        return eldest.hasNext() ? eldest.next() : null;
+    }
+}
@@ -0,0 +1,85 @@
+package org.example.cache;
+
+import org.example.model.CurrencyOrdinals;
+import org.example.model.RateTable;
+
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+
+/**
+ * Compact binary form of a {@link RateTable}: a version byte, the base code, the timestamp, then one
+ * length-prefixed ASCII code and IEEE 754 double per quote, about 12 bytes per quote. Ordinals are
+ * process-local, so quotes travel by code and are re-interned on decode; codes the local registry does
+ * not accept are dropped.
+ */
+public class RateTableCodec implements CacheCodec<RateTable> {
+
+    private static final byte VERSION = 1;
+
+    private final CurrencyOrdinals ordinals;
+
+    public RateTableCodec(CurrencyOrdinals ordinals) {
+        this.ordinals = ordinals;
+    }
+
+    @Override
+    public Class<RateTable> type() {
+        return RateTable.class;
+    }
+
+    @Override
+    public byte[] encode(RateTable rateTable) {
+        int count = 0;
+        int quotesLength = 0;
+        for (int i = 0; i < rateTable.length(); i++) {
+            if (!Double.isNaN(rateTable.getRate(i))) {
+                count++;
+                quotesLength += 1 + rateTable.quoteCode(i).length() + 8;
+            }
+        }
+        byte[] base = rateTable.getBaseCode().getBytes(StandardCharsets.US_ASCII);
+        ByteBuffer buffer = ByteBuffer.allocate(1 + 1 + base.length + 8 + 4 + 4 + quotesLength);
+        buffer.put(VERSION).put((byte) base.length).put(base);
+        buffer.putLong(rateTable.getTimestamp().toEpochSecond(ZoneOffset.UTC)).putInt(rateTable.getTimestamp().getNano());
+        buffer.putInt(count);
+        for (int i = 0; i < rateTable.length(); i++) {
+            double rate = rateTable.getRate(i);
+            if (!Double.isNaN(rate)) {
+                byte[] code = rateTable.quoteCode(i).getBytes(StandardCharsets.US_ASCII);
+                buffer.put((byte) code.length).put(code).putDouble(rate);
+            }
+        }
+        return buffer.array();
+    }
+
+    @Override
+    public RateTable decode(byte[] bytes) {
+        try {
+            ByteBuffer buffer = ByteBuffer.wrap(bytes);
+            if (buffer.get() != VERSION) {
+                throw new IllegalArgumentException("Unsupported rate table encoding version");
+            }
+            String baseCode = readCode(buffer);
+            LocalDateTime timestamp = LocalDateTime.ofEpochSecond(buffer.getLong(), buffer.getInt(), ZoneOffset.UTC);
+            int count = buffer.getInt();
+            int[] quoteOrdinals = new int[count];
+            double[] values = new double[count];
+            for (int i = 0; i < count; i++) {
+                quoteOrdinals[i] = ordinals.intern(readCode(buffer));
+                values[i] = buffer.getDouble();
+            }
+            return RateTable.of(ordinals, baseCode, quoteOrdinals, values, count, timestamp);
+        } catch (BufferUnderflowException e) {
+            throw new IllegalArgumentException("Truncated rate table encoding", e);
+        }
+    }
+
+    private static String readCode(ByteBuffer buffer) {
+        byte[] code = new byte[buffer.get()];
+        buffer.get(code);
+        return new String(code, StandardCharsets.US_ASCII);
+    }
+}
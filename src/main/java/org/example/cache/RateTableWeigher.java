@@ -0,0 +1,48 @@
+package org.example.cache;
+
+import org.example.model.RateTable;
+
+/**
+ * Estimates the retained heap size in bytes of cached {@link RateTable} values, assuming a
+ * 64-bit JVM with compressed oops. The base code string is interned and not counted.
+ */
+public class RateTableWeigher implements Weigher {
+
+    private static final long RATE_TABLE_SHALLOW = 24;
+    private static final long TIMESTAMP = 72;
+    private static final long ARRAY_HEADER = 16;
+    // a quote serializes to "XXX":<double>, i.e. 6 bytes of key, up to 18 of rate and a separator
+    private static final long JSON_BYTES_PER_QUOTE = 22;
+    // the rates are mostly distinct digits, so gzip saves little more than half
+    private static final long GZIP_BYTES_PER_QUOTE = 11;
+    private static final long GZIP_OVERHEAD = 20;
+
+    private final boolean includeGzip;
+
+    public RateTableWeigher() {
+        this(false);
+    }
+
+    /**
+     * @param includeGzip whether cached tables also retain their gzip body. The serialized forms are
+     *                    estimated from the quote count rather than materialized, so weighing stays cheap
+     *                    and does not build bodies that may never be served
+     */
+    public RateTableWeigher(boolean includeGzip) {
+        this.includeGzip = includeGzip;
+    }
+
+    @Override
+    public long weigh(Object key, Object value) {
+        if (value instanceof RateTable rateTable) {
+            long weight = RATE_TABLE_SHALLOW + TIMESTAMP + ARRAY_HEADER + 8L * rateTable.length();
+            long quotes = rateTable.quoteCount();
+            weight += ARRAY_HEADER + 2 + JSON_BYTES_PER_QUOTE * quotes;
+            if (includeGzip) {
+                weight += ARRAY_HEADER + GZIP_OVERHEAD + GZIP_BYTES_PER_QUOTE * quotes;
+            }
+            return weight;
+        }
+        return 1;
+    }
+}
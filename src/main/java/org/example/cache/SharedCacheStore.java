@@ -0,0 +1,29 @@
+package org.example.cache;
+
+import java.time.Duration;
+import java.util.function.Consumer;
+
+/**
+ * Byte-level cache shared by all replicas, used by {@link TwoLevelCache} as its second level, plus the
+ * pub/sub channel replicas use to push changes to each other's first level.
+ */
+public interface SharedCacheStore {
+
+    /**
+     * @return the stored bytes, or null if absent or expired
+     */
+    byte[] get(String key);
+
+    void put(String key, byte[] value, Duration ttl);
+
+    void delete(String key);
+
+    void deleteByPrefix(String prefix);
+
+    void publish(String channel, byte[] message);
+
+    /**
+     * Delivers every message published on {@code channel}, including this replica's own.
+     */
+    void subscribe(String channel, Consumer<byte[]> listener);
+}
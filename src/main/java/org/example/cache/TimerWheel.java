@@ -0,0 +1,70 @@
+package org.example.cache;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.function.BiConsumer;
+
+/**
+ * Hashed timer wheel of entry deadlines. Writers append to the bucket of the deadline's tick
+ * without locking; {@link #advance} walks the buckets between the last and the current tick and
+ * removes entries that have expired. Entries scheduled more than one revolution ahead stay in
+ * their bucket until a later pass, and timers of replaced or removed entries are dropped lazily.
+ */
+final class TimerWheel {
+
+    private static final int WHEEL_SIZE = 64;
+    private static final int MASK = WHEEL_SIZE - 1;
+    private static final long MIN_TICK_NANOS = 1_000_000;
+
+    private final long tickNanos;
+    private final Queue<Timer>[] buckets;
+    private volatile long currentTick;
+
+    @SuppressWarnings("unchecked")
+    TimerWheel(long ttlNanos, long nowNanos) {
+        this.tickNanos = Math.max(MIN_TICK_NANOS, ttlNanos / WHEEL_SIZE);
+        this.buckets = new Queue[WHEEL_SIZE];
+        for (int i = 0; i < WHEEL_SIZE; i++) {
+            buckets[i] = new ConcurrentLinkedQueue<>();
+        }
+        this.currentTick = Math.floorDiv(nowNanos, tickNanos);
+    }
+
+    void schedule(Object key, TtlCache.CacheValue value) {
+        long tick = Math.max(Math.floorDiv(value.getExpiresAtNanos(), tickNanos), currentTick + 1);
+        buckets[(int) (tick & MASK)].add(new Timer(key, value));
+    }
+
+    synchronized void advance(long nowNanos,
+                              Map<Object, TtlCache.CacheValue> store,
+                              BiConsumer<Object, TtlCache.CacheValue> expirer) {
+        long nowTick = Math.floorDiv(nowNanos, tickNanos);
+        long ticks = Math.min(nowTick - currentTick, WHEEL_SIZE);
+        List<Timer> pending = new ArrayList<>();
+        for (long i = 1; i <= ticks; i++) {
+            Queue<Timer> bucket = buckets[(int) ((currentTick + i) & MASK)];
+            Timer timer;
+            while ((timer = bucket.poll()) != null) {
+                if (store.get(timer.key) != timer.value) {
+                    continue;
+                }
+                if (timer.value.isExpired(nowNanos)) {
+                    expirer.accept(timer.key, timer.value);
+                } else {
+                    pending.add(timer);
+                }
+            }
+            bucket.addAll(pending);
+            pending.clear();
+        }
+        if (nowTick > currentTick) {
+            currentTick = nowTick;
+        }
+    }
+
+    private record Timer(Object key, TtlCache.CacheValue value) {
+    }
+}
@@ -0,0 +1,77 @@
+package org.example.cache;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+
+/**
+ * Window TinyLFU: new keys enter a small LRU window, and a key overflowing the window is only
+ * admitted to the main LRU region if it has been seen more often than the main region's eldest key.
+ * This keeps one-off keys from flushing out frequently requested ones.
+ */
+class TinyLfuEvictionPolicy implements EvictionPolicy {
+
+    private static final int WINDOW_PERCENT = 1;
+
+    private final FrequencySketch sketch;
+    private final long windowCapacity;
+    private final LinkedHashMap<Object, Boolean> window = new LinkedHashMap<>(16, 0.75f, true);
+    private final LinkedHashMap<Object, Boolean> main = new LinkedHashMap<>(16, 0.75f, true);
+    private Object lastAdmitted;
+
+    TinyLfuEvictionPolicy(long expectedEntries) {
+        this.sketch = new FrequencySketch(expectedEntries);
+        this.windowCapacity = Math.max(1, expectedEntries * WINDOW_PERCENT / 100);
+    }
+
+    @Override
+    public void onAccess(Object key) {
+        sketch.increment(key);
+        if (window.get(key) == null) {
+            main.get(key);
+        }
+    }
+
+    @Override
+    public void onInsert(Object key) {
+        sketch.increment(key);
+        if (window.get(key) != null || main.get(key) != null) {
+            return;
+        }
+        window.put(key, Boolean.TRUE);
+        if (window.size() > windowCapacity) {
+            Object overflow = eldest(window);
+            window.remove(overflow);
+            main.put(overflow, Boolean.TRUE);
+            lastAdmitted = overflow;
+        }
+    }
+
+    @Override
+    public void onRemove(Object key) {
+        if (window.remove(key) == null) {
+            main.remove(key);
+        }
+        if (key.equals(lastAdmitted)) {
+            lastAdmitted = null;
+        }
+    }
+
+    @Override
+    public Object selectVictim(Object candidate) {
+        if (main.isEmpty()) {
+            return eldest(window);
+        }
+        Object victim = eldest(main);
+        Object challenger = lastAdmitted;
+        lastAdmitted = null;
+        if (challenger == null || challenger.equals(victim)) {
+            return victim;
+        }
+        return sketch.frequency(challenger) > sketch.frequency(victim) ? victim : challenger;
+    }
+
+    private static Object eldest(LinkedHashMap<Object, Boolean> region) {
+        Iterator<Object> keys = region.keySet().iterator();
+        return keys.hasNext() ? keys.next() : null;
+    }
+}
@@ -1,23 +1,72 @@
 package org.example.cache;
 
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.cache.Cache;
-import org.springframework.cache.support.SimpleValueWrapper;
 import org.springframework.lang.Nullable;
 
 import java.time.Duration;
-import java.time.LocalDateTime;
 import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
 
 public class TtlCache implements Cache {
 
+    private static final Logger logger = LoggerFactory.getLogger(TtlCache.class);
+
+    private static final long DEFAULT_EXPECTED_ENTRIES = 1024;
+
     private final String name;
     private final Duration ttl;
+    private final long ttlNanos;
+    private final long refreshAfterNanos;
+    private final TimerWheel timerWheel;
     private final ConcurrentHashMap<Object, CacheValue> store = new ConcurrentHashMap<>();
+    private final ConcurrentHashMap<Object, CompletableFuture<Object>> loading = new ConcurrentHashMap<>();
+    private final LongAdder hitCount = new LongAdder();
+    private final LongAdder missCount = new LongAdder();
+    private final LongAdder putCount = new LongAdder();
+    private final LongAdder loadCount = new LongAdder();
+    private final LongAdder loadFailureCount = new LongAdder();
+    private final LongAdder totalLoadNanos = new LongAdder();
+    private final LongAdder coalescedLoadCount = new LongAdder();
+    private final LongAdder refreshCount = new LongAdder();
+
+    private final long maximumWeight;
+    private final Weigher weigher;
+    @Nullable
+    private final EvictionPolicy evictionPolicy;
+    private final ReentrantLock evictionLock = new ReentrantLock();
+    private final LongAdder evictionCount = new LongAdder();
+    private long weightedSize;
 
     public TtlCache(String name, Duration ttl) {
         this.name = name;
         this.ttl = ttl;
+        this.ttlNanos = ttl.toNanos();
+        this.refreshAfterNanos = ttlNanos;
+        this.timerWheel = new TimerWheel(ttlNanos, System.nanoTime());
+        this.maximumWeight = Long.MAX_VALUE;
+        this.weigher = Weigher.UNIT;
+        this.evictionPolicy = null;
+    }
+
+    private TtlCache(Builder builder) {
+        this.name = builder.name;
+        this.ttl = builder.ttl;
+        this.ttlNanos = ttl.toNanos();
+        this.refreshAfterNanos = (long) (ttlNanos * (1 - builder.refreshAheadRatio));
+        this.timerWheel = new TimerWheel(ttlNanos, System.nanoTime());
+        this.maximumWeight = builder.maximumWeight;
+        this.weigher = builder.weigher;
+        this.evictionPolicy = builder.buildEvictionPolicy();
+    }
+
+    public static Builder builder(String name, Duration ttl) {
+        return new Builder(name, ttl);
     }
 
     @Override
@@ -34,12 +83,18 @@ public class TtlCache implements Cache {
     @Nullable
     public ValueWrapper get(Object key) {
         CacheValue cacheValue = store.get(key);
-        if (cacheValue != null && !cacheValue.isExpired()) {
-            return new SimpleValueWrapper(cacheValue.getValue());
-        } else {
-            evict(key);
+        if (cacheValue == null) {
+            missCount.increment();
             return null;
         }
+        if (cacheValue.isExpired()) {
+            missCount.increment();
+            remove(key, cacheValue);
+            return null;
+        }
+        hitCount.increment();
+        recordAccess(key);
+        return cacheValue;
     }
 
     @Override
@@ -59,92 +114,500 @@ public class TtlCache implements Cache {
         }
     }
 
+    /**
+     * Returns the cached value or loads it. Loads are single-flight per key: the first caller
+     * runs {@code valueLoader}, concurrent callers for the same key wait for that result
+     * instead of running their own loader. With a refresh-ahead window configured, a hit inside
+     * the window returns the current value and reloads it in the background.
+     */
     @Override
     @SuppressWarnings("unchecked")
     public <T> T get(Object key, Callable<T> valueLoader) {
-        try {
-            while (true) {
-                CacheValue cacheValue = store.get(key);
-                if (cacheValue != null && !cacheValue.isExpired()) {
-                    return (T) cacheValue.getValue();
-                } else {
-                    CacheValue newValue = new CacheValue(valueLoader.call(), LocalDateTime.now());
-                    CacheValue existingValue = store.putIfAbsent(key, newValue);
-                    if (existingValue == null) {
-                        return (T) newValue.getValue();
-                    } else if (!existingValue.isExpired()) {
-                        return (T) existingValue.getValue();
-                    } else {
-                        store.replace(key, existingValue, newValue);
-                    }
+        CacheValue cacheValue = store.get(key);
+        if (cacheValue != null) {
+            long now = System.nanoTime();
+            if (!cacheValue.isExpired(now)) {
+                hitCount.increment();
+                recordAccess(key);
+                if (cacheValue.isRefreshDue(now)) {
+                    refreshAsync(key, cacheValue, valueLoader);
                 }
+                return (T) cacheValue.getValue();
             }
+        }
+
+        missCount.increment();
+        CompletableFuture<Object> newLoad = new CompletableFuture<>();
+        CompletableFuture<Object> inFlight = loading.putIfAbsent(key, newLoad);
+        if (inFlight != null) {
+            coalescedLoadCount.increment();
+            return (T) awaitLoad(key, valueLoader, inFlight);
+        }
+
+        try {
+            Object value;
+            CacheValue current = store.get(key);
+            if (current != null && !current.isExpired()) {
+                // another loader finished between our miss and claiming the key
+                value = current.getValue();
+            } else {
+                CacheValue loaded = newCacheValue(key, load(valueLoader));
+                install(key, loaded);
+                value = loaded.getValue();
+            }
+            newLoad.complete(value);
+            return (T) value;
         } catch (Exception e) {
+            newLoad.completeExceptionally(e);
             throw new ValueRetrievalException(key, valueLoader, e);
+        } catch (Error e) {
+            newLoad.completeExceptionally(e);
+            throw e;
+        } finally {
+            loading.remove(key, newLoad);
+        }
+    }
+
+    private Object load(Callable<?> valueLoader) throws Exception {
+        long start = System.nanoTime();
+        try {
+            Object value = valueLoader.call();
+            loadCount.increment();
+            return value;
+        } catch (Exception | Error e) {
+            loadFailureCount.increment();
+            throw e;
+        } finally {
+            totalLoadNanos.add(System.nanoTime() - start);
+        }
+    }
+
+    private void refreshAsync(Object key, CacheValue cacheValue, Callable<?> valueLoader) {
+        if (!cacheValue.markRefreshing() || loading.containsKey(key)) {
+            return;
+        }
+        CompletableFuture<Object> refresh = new CompletableFuture<>();
+        if (loading.putIfAbsent(key, refresh) != null) {
+            return;
+        }
+        refreshCount.increment();
+        Thread.ofVirtual().name("cache-refresh-" + name).start(() -> {
+            try {
+                CacheValue newValue = newCacheValue(key, load(valueLoader));
+                if (store.replace(key, cacheValue, newValue)) {
+                    afterWrite(key, cacheValue, newValue);
+                } else if (store.putIfAbsent(key, newValue) == null) {
+                    afterWrite(key, null, newValue);
+                }
+                refresh.complete(newValue.getValue());
+            } catch (Throwable e) {
+                logger.warn("Refresh of key {} in cache {} failed: {}", key, name, e.getMessage());
+                refresh.completeExceptionally(e);
+            } finally {
+                loading.remove(key, refresh);
+            }
+        });
+    }
+
+    private Object awaitLoad(Object key, Callable<?> valueLoader, CompletableFuture<Object> inFlight) {
+        try {
+            return inFlight.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new ValueRetrievalException(key, valueLoader, e);
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof Error error) {
+                throw error;
+            }
+            throw new ValueRetrievalException(key, valueLoader, cause);
         }
     }
 
     @Override
     public void put(Object key, @Nullable Object value) {
         if (value != null) {
-            store.put(key, new CacheValue(value, LocalDateTime.now()));
+            putCount.increment();
+            install(key, newCacheValue(key, value));
         } else {
             evict(key);
         }
     }
 
+    /**
+     * Like {@link #put(Object, Object)}, but the entry expires after {@code ttl}, capped at the cache's TTL.
+     * Used for values that were written elsewhere earlier and only have part of their lifetime left.
+     */
+    public void put(Object key, Object value, Duration ttl) {
+        putCount.increment();
+        install(key, newCacheValue(key, new Expiring(value, ttl)));
+    }
+
     @Override
     @Nullable
     public ValueWrapper putIfAbsent(Object key, @Nullable Object value) {
         if (value == null) {
             return get(key);
         }
-        CacheValue newValue = new CacheValue(value, LocalDateTime.now());
-        CacheValue existingValue = store.putIfAbsent(key, newValue);
-        if (existingValue == null || existingValue.isExpired()) {
-            return null;
-        } else {
-            return new SimpleValueWrapper(existingValue.getValue());
+        CacheValue newValue = newCacheValue(key, value);
+        while (true) {
+            CacheValue existingValue = store.putIfAbsent(key, newValue);
+            if (existingValue == null) {
+                putCount.increment();
+                afterWrite(key, null, newValue);
+                return null;
+            } else if (!existingValue.isExpired()) {
+                return existingValue;
+            } else if (store.replace(key, existingValue, newValue)) {
+                putCount.increment();
+                afterWrite(key, existingValue, newValue);
+                return null;
+            }
         }
     }
 
     @Override
     public void evict(Object key) {
-        store.remove(key);
+        CacheValue removed = store.remove(key);
+        if (removed != null) {
+            afterRemoval(key, removed);
+        }
     }
 
     @Override
     public boolean evictIfPresent(Object key) {
-        return store.remove(key) != null;
+        CacheValue removed = store.remove(key);
+        if (removed != null) {
+            afterRemoval(key, removed);
+            return true;
+        }
+        return false;
     }
 
     @Override
     public void clear() {
-        store.clear();
+        for (Object key : store.keySet()) {
+            evict(key);
+        }
     }
 
     @Override
     public boolean invalidate() {
         boolean wasNotEmpty = !store.isEmpty();
-        store.clear();
+        clear();
         return wasNotEmpty;
     }
 
-    private class CacheValue {
+    /**
+     * Removes expired entries without waiting for them to be read again. Called periodically
+     * by {@link org.example.scheduler.CacheExpiryScheduler}.
+     */
+    public void cleanUp() {
+        timerWheel.advance(System.nanoTime(), store, this::remove);
+    }
+
+    /**
+     * @return whether a live entry exists for {@code key}; unlike {@link #get(Object)} this is neither
+     *         counted as a hit or miss nor reported to the eviction policy
+     */
+    public boolean containsKey(Object key) {
+        CacheValue cacheValue = store.get(key);
+        return cacheValue != null && !cacheValue.isExpired();
+    }
+
+    public Duration getTtl() {
+        return ttl;
+    }
+
+    public long getHitCount() {
+        return hitCount.sum();
+    }
+
+    /**
+     * Lookups that found no live entry, including those that then loaded or joined a load.
+     */
+    public long getMissCount() {
+        return missCount.sum();
+    }
+
+    public long getPutCount() {
+        return putCount.sum();
+    }
+
+    /**
+     * Number of loader invocations, including background refreshes, that returned a value.
+     */
+    public long getLoadCount() {
+        return loadCount.sum();
+    }
+
+    public long getLoadFailureCount() {
+        return loadFailureCount.sum();
+    }
+
+    /**
+     * Time spent in loaders, successful or not, including background refreshes.
+     */
+    public long getTotalLoadTimeNanos() {
+        return totalLoadNanos.sum();
+    }
+
+    /**
+     * Number of callers that joined an in-flight load instead of running their own loader.
+     */
+    public long getCoalescedLoadCount() {
+        return coalescedLoadCount.sum();
+    }
+
+    /**
+     * Number of background reloads started by the refresh-ahead window.
+     */
+    public long getRefreshCount() {
+        return refreshCount.sum();
+    }
+
+    public long getEvictionCount() {
+        return evictionCount.sum();
+    }
+
+    public long getEstimatedSize() {
+        return store.size();
+    }
+
+    /**
+     * Sum of the weights of all entries, as computed by the configured {@link Weigher}.
+     * Always 0 for unbounded caches, which do not weigh their entries.
+     */
+    public long getWeightedSize() {
+        evictionLock.lock();
+        try {
+            return weightedSize;
+        } finally {
+            evictionLock.unlock();
+        }
+    }
+
+    public long getMaximumWeight() {
+        return maximumWeight;
+    }
+
+    private boolean isBounded() {
+        return evictionPolicy != null;
+    }
+
+    /**
+     * @param value the value, or an {@link Expiring} carrying the value and its remaining lifetime
+     */
+    private CacheValue newCacheValue(Object key, @Nullable Object value) {
+        long lifetimeNanos = ttlNanos;
+        if (value instanceof Expiring expiring) {
+            lifetimeNanos = Math.min(expiring.ttl().toNanos(), ttlNanos);
+            value = expiring.value();
+        }
+        long weight = isBounded() && value != null ? weigher.weigh(key, value) : 0;
+        long now = System.nanoTime();
+        // the refresh-ahead window keeps its length, so an entry with less lifetime left is refreshed sooner
+        return new CacheValue(value, now + lifetimeNanos, now + lifetimeNanos - (ttlNanos - refreshAfterNanos), weight);
+    }
+
+    private void install(Object key, CacheValue value) {
+        CacheValue previous = store.put(key, value);
+        afterWrite(key, previous, value);
+    }
+
+    private void remove(Object key, CacheValue expected) {
+        if (store.remove(key, expected)) {
+            afterRemoval(key, expected);
+        }
+    }
+
+    private void recordAccess(Object key) {
+        // reads never wait for the eviction lock; a dropped access only makes the policy slightly less precise
+        if (isBounded() && evictionLock.tryLock()) {
+            try {
+                evictionPolicy.onAccess(key);
+            } finally {
+                evictionLock.unlock();
+            }
+        }
+    }
+
+    private void afterWrite(Object key, @Nullable CacheValue previous, CacheValue value) {
+        timerWheel.schedule(key, value);
+        if (!isBounded()) {
+            return;
+        }
+        evictionLock.lock();
+        try {
+            weightedSize += value.getWeight() - (previous != null ? previous.getWeight() : 0);
+            evictionPolicy.onInsert(key);
+            while (weightedSize > maximumWeight) {
+                Object victim = evictionPolicy.selectVictim(key);
+                if (victim == null) {
+                    break;
+                }
+                evictionPolicy.onRemove(victim);
+                CacheValue evicted = store.remove(victim);
+                if (evicted != null) {
+                    weightedSize -= evicted.getWeight();
+                    evictionCount.increment();
+                }
+            }
+        } finally {
+            evictionLock.unlock();
+        }
+    }
+
+    private void afterRemoval(Object key, CacheValue removed) {
+        if (!isBounded()) {
+            return;
+        }
+        evictionLock.lock();
+        try {
+            weightedSize -= removed.getWeight();
+            if (!store.containsKey(key)) {
+                evictionPolicy.onRemove(key);
+            }
+        } finally {
+            evictionLock.unlock();
+        }
+    }
+
+    /**
+     * A value with less than the full TTL left. A loader passed to {@link #get(Object, Callable)} may return one
+     * to have the value installed with that lifetime; callers still receive the bare value.
+     */
+    record Expiring(Object value, Duration ttl) {
+    }
+
+    /**
+     * Doubles as the {@link ValueWrapper} handed out on hits, so a hit allocates nothing.
+     * The deadline is on the {@link System#nanoTime()} scale and is immune to wall clock steps.
+     */
+    static final class CacheValue implements ValueWrapper {
         private final Object value;
-        private final LocalDateTime timestamp;
+        private final long expiresAtNanos;
+        private final long refreshAtNanos;
+        private final long weight;
+        private volatile boolean refreshing;
 
-        public CacheValue(Object value, LocalDateTime timestamp) {
+        CacheValue(Object value, long expiresAtNanos, long refreshAtNanos, long weight) {
             this.value = value;
-            this.timestamp = timestamp;
+            this.expiresAtNanos = expiresAtNanos;
+            this.refreshAtNanos = refreshAtNanos;
+            this.weight = weight;
         }
 
-        public boolean isExpired() {
-            return timestamp.plus(ttl).isBefore(LocalDateTime.now());
+        @Override
+        public Object get() {
+            return value;
+        }
+
+        boolean isExpired() {
+            return isExpired(System.nanoTime());
+        }
+
+        boolean isExpired(long nowNanos) {
+            return nowNanos - expiresAtNanos >= 0;
+        }
+
+        boolean isRefreshDue(long nowNanos) {
+            return !refreshing && nowNanos - refreshAtNanos >= 0;
+        }
+
+        /**
+         * Claims the single refresh of this value; a failed refresh is not retried, the entry expires normally instead.
+         */
+        boolean markRefreshing() {
+            if (refreshing) {
+                return false;
+            }
+            refreshing = true;
+            return true;
+        }
+
+        long getExpiresAtNanos() {
+            return expiresAtNanos;
         }
 
-        public Object getValue() {
+        Object getValue() {
             return value;
         }
+
+        long getWeight() {
+            return weight;
+        }
+    }
+
+    public static final class Builder {
+        private final String name;
+        private final Duration ttl;
+        private long maximumWeight = Long.MAX_VALUE;
+        private Weigher weigher = Weigher.UNIT;
+        private EvictionStrategy evictionStrategy = EvictionStrategy.LRU;
+        private double refreshAheadRatio;
+        @Nullable
+        private EvictionPolicy evictionPolicy;
+
+        private Builder(String name, Duration ttl) {
+            this.name = name;
+            this.ttl = ttl;
+        }
+
+        public Builder maximumSize(long maximumSize) {
+            this.maximumWeight = maximumSize;
+            this.weigher = Weigher.UNIT;
+            return this;
+        }
+
+        public Builder maximumWeight(long maximumWeight, Weigher weigher) {
+            this.maximumWeight = maximumWeight;
+            this.weigher = weigher;
+            return this;
+        }
+
+        public Builder evictionStrategy(EvictionStrategy evictionStrategy) {
+            this.evictionStrategy = evictionStrategy;
+            return this;
+        }
+
+        /**
+         * Plugs in a custom policy; takes precedence over {@link #evictionStrategy(EvictionStrategy)}.
+         */
+        public Builder evictionPolicy(EvictionPolicy evictionPolicy) {
+            this.evictionPolicy = evictionPolicy;
+            return this;
+        }
+
+        /**
+         * Fraction of the TTL at the end of an entry's life during which {@link TtlCache#get(Object, Callable)}
+         * serves the current value and reloads it asynchronously. 0 disables refresh-ahead.
+         */
+        public Builder refreshAheadRatio(double refreshAheadRatio) {
+            if (refreshAheadRatio < 0 || refreshAheadRatio >= 1) {
+                throw new IllegalArgumentException("Refresh-ahead ratio must be in [0, 1) for cache: " + name);
+            }
+            this.refreshAheadRatio = refreshAheadRatio;
+            return this;
+        }
+
+        public TtlCache build() {
+            if (maximumWeight <= 0) {
+                throw new IllegalArgumentException("Maximum weight must be positive for cache: " + name);
+            }
+            return new TtlCache(this);
+        }
+
+        @Nullable
+        private EvictionPolicy buildEvictionPolicy() {
+            if (maximumWeight == Long.MAX_VALUE) {
+                return null;
+            }
+            if (evictionPolicy != null) {
+                return evictionPolicy;
+            }
+            long expectedEntries = weigher == Weigher.UNIT ? maximumWeight : DEFAULT_EXPECTED_ENTRIES;
+            return evictionStrategy.create(expectedEntries);
+        }
     }
 }
@@ -0,0 +1,16 @@
+package org.example.cache;
+
+import io.micrometer.core.instrument.Tag;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.springframework.boot.actuate.metrics.cache.CacheMeterBinderProvider;
+
+/**
+ * Lets the actuator cache metrics registrar bind every {@link TtlCache} of the application's cache manager.
+ */
+public class TtlCacheMeterBinderProvider implements CacheMeterBinderProvider<TtlCache> {
+
+    @Override
+    public MeterBinder getMeterBinder(TtlCache cache, Iterable<Tag> tags) {
+        return new TtlCacheMetrics(cache, tags);
+    }
+}
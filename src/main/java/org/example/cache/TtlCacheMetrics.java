@@ -0,0 +1,79 @@
+package org.example.cache;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.FunctionTimer;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tag;
+import io.micrometer.core.instrument.binder.cache.CacheMeterBinder;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Publishes the counters {@link TtlCache} already keeps; nothing is recorded on the cache's own hot path.
+ * Registered for every {@link TtlCache} by {@link TtlCacheMeterBinderProvider}.
+ */
+public class TtlCacheMetrics extends CacheMeterBinder<TtlCache> {
+
+    public TtlCacheMetrics(TtlCache cache, Iterable<Tag> tags) {
+        super(cache, cache.getName(), tags);
+    }
+
+    @Override
+    protected Long size() {
+        TtlCache cache = getCache();
+        return cache != null ? cache.getEstimatedSize() : null;
+    }
+
+    @Override
+    protected long hitCount() {
+        TtlCache cache = getCache();
+        return cache != null ? cache.getHitCount() : 0;
+    }
+
+    @Override
+    protected Long missCount() {
+        TtlCache cache = getCache();
+        return cache != null ? cache.getMissCount() : null;
+    }
+
+    @Override
+    protected Long evictionCount() {
+        TtlCache cache = getCache();
+        return cache != null ? cache.getEvictionCount() : null;
+    }
+
+    @Override
+    protected long putCount() {
+        TtlCache cache = getCache();
+        return cache != null ? cache.getPutCount() : 0;
+    }
+
+    @Override
+    protected void bindImplementationSpecificMetrics(MeterRegistry registry) {
+        TtlCache cache = getCache();
+        if (cache == null) {
+            return;
+        }
+        FunctionTimer.builder("cache.loads", cache, TtlCache::getLoadCount, TtlCache::getTotalLoadTimeNanos, TimeUnit.NANOSECONDS)
+                .tags(getTagsWithCacheName())
+                .description("Loader invocations that returned a value, and the time spent in all loaders")
+                .register(registry);
+        FunctionCounter.builder("cache.load.failures", cache, TtlCache::getLoadFailureCount)
+                .tags(getTagsWithCacheName())
+                .description("Loader invocations that threw")
+                .register(registry);
+        FunctionCounter.builder("cache.load.coalesced", cache, TtlCache::getCoalescedLoadCount)
+                .tags(getTagsWithCacheName())
+                .description("Callers that joined an in-flight load instead of running their own loader")
+                .register(registry);
+        FunctionCounter.builder("cache.refreshes", cache, TtlCache::getRefreshCount)
+                .tags(getTagsWithCacheName())
+                .description("Background reloads started by the refresh-ahead window")
+                .register(registry);
+        Gauge.builder("cache.weight", cache, TtlCache::getWeightedSize)
+                .tags(getTagsWithCacheName())
+                .description("Sum of the weights of all entries")
+                .register(registry);
+    }
+}
@@ -0,0 +1,311 @@
+package org.example.cache;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.cache.Cache;
+import org.springframework.cache.support.SimpleValueWrapper;
+import org.springframework.lang.Nullable;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.UUID;
+import java.util.concurrent.Callable;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * A {@link TtlCache} (L1) backed by a {@link SharedCacheStore} (L2) common to all replicas. A local miss
+ * reads L2 before running the loader, so a cold replica is warmed by its peers. Every write goes to L2 and
+ * is pushed to the other replicas' L1 over the store's pub/sub channel, in the codec's binary form.
+ * Entries carry the wall-clock time they expire at, so a value copied into another replica's L1 only lives
+ * for what is left of its TTL instead of starting a fresh one. L2 is best effort: when it fails the cache
+ * keeps working as a plain L1.
+ */
+public class TwoLevelCache<V> implements Cache {
+
+    private static final Logger logger = LoggerFactory.getLogger(TwoLevelCache.class);
+
+    private static final byte PUT = 1;
+    private static final byte EVICT = 2;
+    private static final byte CLEAR = 3;
+
+    private final TtlCache local;
+    private final SharedCacheStore shared;
+    private final CacheCodec<V> codec;
+    private final String keyPrefix;
+    private final String channel;
+    private final UUID nodeId = UUID.randomUUID();
+    private final LongAdder sharedHitCount = new LongAdder();
+    private final LongAdder sharedMissCount = new LongAdder();
+    private final LongAdder sharedErrorCount = new LongAdder();
+    private final LongAdder receivedMessageCount = new LongAdder();
+
+    /**
+     * @param namespace prefix of the L2 keys and channel, so several applications can share one store
+     */
+    public TwoLevelCache(TtlCache local, SharedCacheStore shared, CacheCodec<V> codec, String namespace) {
+        this.local = local;
+        this.shared = shared;
+        this.codec = codec;
+        this.keyPrefix = namespace + ":" + local.getName() + ":";
+        this.channel = namespace + ":" + local.getName() + ":changes";
+        shared.subscribe(channel, this::onMessage);
+    }
+
+    @Override
+    public String getName() {
+        return local.getName();
+    }
+
+    @Override
+    public Object getNativeCache() {
+        return local;
+    }
+
+    public TtlCache getLocalCache() {
+        return local;
+    }
+
+    @Override
+    @Nullable
+    public ValueWrapper get(Object key) {
+        ValueWrapper cached = local.get(key);
+        if (cached != null) {
+            return cached;
+        }
+        TtlCache.Expiring entry = readShared(key);
+        if (entry == null) {
+            return null;
+        }
+        local.put(key, entry.value(), entry.ttl());
+        return new SimpleValueWrapper(entry.value());
+    }
+
+    @Override
+    @Nullable
+    @SuppressWarnings("unchecked")
+    public <T> T get(Object key, @Nullable Class<T> type) {
+        ValueWrapper valueWrapper = get(key);
+        if (valueWrapper == null) {
+            return null;
+        }
+        Object value = valueWrapper.get();
+        if (type != null && !type.isInstance(value)) {
+            throw new IllegalStateException("Cached value is not of required type [" + type.getName() + "]: " + value);
+        }
+        return (T) value;
+    }
+
+    /**
+     * Loads through L1's single-flight path. A key L1 does not hold is first looked up in L2; a background
+     * refresh of a live key skips L2, which would most likely hand back the value being refreshed.
+     */
+    @Override
+    @SuppressWarnings("unchecked")
+    public <T> T get(Object key, Callable<T> valueLoader) {
+        return local.get(key, () -> {
+            if (!local.containsKey(key)) {
+                TtlCache.Expiring entry = readShared(key);
+                if (entry != null) {
+                    // installed with the remaining TTL; callers get the bare value
+                    return (T) entry;
+                }
+            }
+            T loaded = valueLoader.call();
+            writeShared(key, loaded);
+            return loaded;
+        });
+    }
+
+    @Override
+    public void put(Object key, @Nullable Object value) {
+        local.put(key, value);
+        if (value != null) {
+            writeShared(key, value);
+        } else {
+            removeShared(key);
+        }
+    }
+
+    @Override
+    @Nullable
+    public ValueWrapper putIfAbsent(Object key, @Nullable Object value) {
+        ValueWrapper existing = local.putIfAbsent(key, value);
+        if (existing == null && value != null) {
+            writeShared(key, value);
+        }
+        return existing;
+    }
+
+    @Override
+    public void evict(Object key) {
+        local.evict(key);
+        removeShared(key);
+    }
+
+    @Override
+    public boolean evictIfPresent(Object key) {
+        boolean present = local.evictIfPresent(key);
+        removeShared(key);
+        return present;
+    }
+
+    @Override
+    public void clear() {
+        local.clear();
+        clearShared();
+    }
+
+    @Override
+    public boolean invalidate() {
+        boolean wasNotEmpty = local.invalidate();
+        clearShared();
+        return wasNotEmpty;
+    }
+
+    public long getSharedHitCount() {
+        return sharedHitCount.sum();
+    }
+
+    public long getSharedMissCount() {
+        return sharedMissCount.sum();
+    }
+
+    /**
+     * Failed L2 reads, writes and publications, and messages that could not be applied.
+     */
+    public long getSharedErrorCount() {
+        return sharedErrorCount.sum();
+    }
+
+    /**
+     * Changes from other replicas applied to this replica's L1.
+     */
+    public long getReceivedMessageCount() {
+        return receivedMessageCount.sum();
+    }
+
+    /**
+     * @return the value with what is left of its TTL, or null if L2 does not hold a live entry
+     */
+    @Nullable
+    private TtlCache.Expiring readShared(Object key) {
+        try {
+            byte[] bytes = shared.get(keyPrefix + key);
+            TtlCache.Expiring entry = bytes != null ? decodeEntry(ByteBuffer.wrap(bytes)) : null;
+            if (entry == null) {
+                sharedMissCount.increment();
+                return null;
+            }
+            sharedHitCount.increment();
+            return entry;
+        } catch (RuntimeException e) {
+            sharedFailure("read " + key, e);
+            return null;
+        }
+    }
+
+    private void writeShared(Object key, Object value) {
+        if (!codec.type().isInstance(value)) {
+            return;
+        }
+        try {
+            byte[] bytes = encodeEntry(value);
+            shared.put(keyPrefix + key, bytes, local.getTtl());
+            shared.publish(channel, message(PUT, key, bytes));
+        } catch (RuntimeException e) {
+            sharedFailure("write " + key, e);
+        }
+    }
+
+    private void removeShared(Object key) {
+        try {
+            shared.delete(keyPrefix + key);
+            shared.publish(channel, message(EVICT, key, new byte[0]));
+        } catch (RuntimeException e) {
+            sharedFailure("evict " + key, e);
+        }
+    }
+
+    private void clearShared() {
+        try {
+            shared.deleteByPrefix(keyPrefix);
+            shared.publish(channel, message(CLEAR, "", new byte[0]));
+        } catch (RuntimeException e) {
+            sharedFailure("clear", e);
+        }
+    }
+
+    private void sharedFailure(String operation, RuntimeException e) {
+        sharedErrorCount.increment();
+        logger.warn("Shared cache {} of cache {} failed: {}", operation, getName(), e.getMessage());
+    }
+
+    /**
+     * Layout of an L2 entry: expiry in epoch milliseconds, then the encoded value.
+     */
+    private byte[] encodeEntry(Object value) {
+        byte[] encoded = codec.encode(codec.type().cast(value));
+        return ByteBuffer.allocate(8 + encoded.length)
+                .putLong(System.currentTimeMillis() + local.getTtl().toMillis())
+                .put(encoded)
+                .array();
+    }
+
+    /**
+     * @return the entry's value with its remaining TTL, capped at L1's, or null if it has already expired
+     */
+    @Nullable
+    private TtlCache.Expiring decodeEntry(ByteBuffer buffer) {
+        long remainingMillis = Math.min(buffer.getLong() - System.currentTimeMillis(), local.getTtl().toMillis());
+        if (remainingMillis <= 0) {
+            return null;
+        }
+        byte[] value = new byte[buffer.remaining()];
+        buffer.get(value);
+        return new TtlCache.Expiring(codec.decode(value), Duration.ofMillis(remainingMillis));
+    }
+
+    /**
+     * Layout: operation, sender id, key length and UTF-8 key, then the L2 entry for {@code PUT}.
+     */
+    private byte[] message(byte operation, Object key, byte[] value) {
+        byte[] keyBytes = key.toString().getBytes(StandardCharsets.UTF_8);
+        return ByteBuffer.allocate(1 + 16 + 2 + keyBytes.length + value.length)
+                .put(operation)
+                .putLong(nodeId.getMostSignificantBits())
+                .putLong(nodeId.getLeastSignificantBits())
+                .putShort((short) keyBytes.length)
+                .put(keyBytes)
+                .put(value)
+                .array();
+    }
+
+    private void onMessage(byte[] message) {
+        try {
+            ByteBuffer buffer = ByteBuffer.wrap(message);
+            byte operation = buffer.get();
+            UUID sender = new UUID(buffer.getLong(), buffer.getLong());
+            if (sender.equals(nodeId)) {
+                return;
+            }
+            byte[] keyBytes = new byte[buffer.getShort()];
+            buffer.get(keyBytes);
+            String key = new String(keyBytes, StandardCharsets.UTF_8);
+            receivedMessageCount.increment();
+            switch (operation) {
+                case PUT -> {
+                    TtlCache.Expiring entry = decodeEntry(buffer);
+                    if (entry != null) {
+                        local.put(key, entry.value(), entry.ttl());
+                    }
+                }
+                case EVICT -> local.evict(key);
+                case CLEAR -> local.clear();
+                default -> logger.warn("Ignoring unknown shared cache message {} on cache {}", operation, getName());
+            }
+        } catch (RuntimeException e) {
+            sharedFailure("message", e);
+        }
+    }
+}
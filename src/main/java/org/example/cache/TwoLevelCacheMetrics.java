@@ -0,0 +1,40 @@
+package org.example.cache;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tag;
+
+/**
+ * {@link TtlCacheMetrics} of the local level plus the shared-level lookups, failures and received changes.
+ */
+public class TwoLevelCacheMetrics extends TtlCacheMetrics {
+
+    private final TwoLevelCache<?> cache;
+
+    public TwoLevelCacheMetrics(TwoLevelCache<?> cache, Iterable<Tag> tags) {
+        super(cache.getLocalCache(), tags);
+        this.cache = cache;
+    }
+
+    @Override
+    protected void bindImplementationSpecificMetrics(MeterRegistry registry) {
+        super.bindImplementationSpecificMetrics(registry);
+        FunctionCounter.builder("cache.shared.gets", cache, TwoLevelCache::getSharedHitCount)
+                .tags(getTagsWithCacheName())
+                .tag("result", "hit")
+                .description("Local misses served by the shared level")
+                .register(registry);
+        FunctionCounter.builder("cache.shared.gets", cache, TwoLevelCache::getSharedMissCount)
+                .tags(getTagsWithCacheName())
+                .tag("result", "miss")
+                .register(registry);
+        FunctionCounter.builder("cache.shared.errors", cache, TwoLevelCache::getSharedErrorCount)
+                .tags(getTagsWithCacheName())
+                .description("Failed shared-level operations; the local level kept serving")
+                .register(registry);
+        FunctionCounter.builder("cache.shared.received", cache, TwoLevelCache::getReceivedMessageCount)
+                .tags(getTagsWithCacheName())
+                .description("Changes pushed by other replicas and applied locally")
+                .register(registry);
+    }
+}
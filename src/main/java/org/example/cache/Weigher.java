@@ -0,0 +1,12 @@
+package org.example.cache;
+
+/**
+ * Computes the relative size of a cache entry for {@link TtlCache} instances bounded by weight.
+ */
+@FunctionalInterface
+public interface Weigher {
+
+    Weigher UNIT = (key, value) -> 1;
+
+    long weigh(Object key, Object value);
+}
@@ -0,0 +1,81 @@
+package org.example.client;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.core.async.ByteBufferFeeder;
+import org.apache.hc.core5.http.ContentType;
+import org.apache.hc.core5.http.HttpException;
+import org.apache.hc.core5.http.HttpResponse;
+import org.apache.hc.core5.http.nio.entity.AbstractBinResponseConsumer;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+
+/**
+ * Response consumer that runs a non-blocking Jackson parser over the body chunks as the I/O reactor
+ * delivers them, so the body is never buffered in full and no tree is built.
+ */
+public class JsonStreamConsumer<T> extends AbstractBinResponseConsumer<T> {
+
+    private static final JsonFactory JSON_FACTORY = new JsonFactory();
+    private static final int CAPACITY_INCREMENT = 64 * 1024;
+
+    private final JsonStreamHandler<T> handler;
+    private JsonParser parser;
+
+    public JsonStreamConsumer(JsonStreamHandler<T> handler) {
+        this.handler = handler;
+    }
+
+    @Override
+    protected void start(HttpResponse response, ContentType contentType) throws HttpException, IOException {
+        if (response.getCode() >= 300) {
+            throw new HttpException("External API responded with status " + response.getCode());
+        }
+        parser = JSON_FACTORY.createNonBlockingByteBufferParser();
+    }
+
+    @Override
+    protected int capacityIncrement() {
+        return CAPACITY_INCREMENT;
+    }
+
+    @Override
+    protected void data(ByteBuffer src, boolean endOfStream) throws IOException {
+        ByteBufferFeeder feeder = (ByteBufferFeeder) parser.getNonBlockingInputFeeder();
+        if (src.hasRemaining()) {
+            feeder.feedInput(src);
+            drain();
+            src.position(src.limit());
+        }
+        if (endOfStream) {
+            feeder.endOfInput();
+            drain();
+        }
+    }
+
+    private void drain() throws IOException {
+        JsonToken token;
+        while ((token = parser.nextToken()) != null && token != JsonToken.NOT_AVAILABLE) {
+            handler.onToken(parser, token);
+        }
+    }
+
+    @Override
+    protected T buildResult() {
+        return handler.getResult();
+    }
+
+    @Override
+    public void releaseResources() {
+        if (parser != null) {
+            try {
+                parser.close();
+            } catch (IOException ignored) {
+                // nothing buffered worth reporting
+            }
+            parser = null;
+        }
+    }
+}
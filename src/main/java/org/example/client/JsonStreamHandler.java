@@ -0,0 +1,17 @@
+package org.example.client;
+
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+
+import java.io.IOException;
+
+/**
+ * Receives the tokens of a JSON response body one by one, as the bytes arrive, and builds the result from them.
+ * {@code parser} is positioned on {@code token}; handlers must not advance it.
+ */
+public interface JsonStreamHandler<T> {
+
+    void onToken(JsonParser parser, JsonToken token) throws IOException;
+
+    T getResult();
+}
@@ -0,0 +1,46 @@
+package org.example.client;
+
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import org.example.model.CurrencyOrdinals;
+import org.example.model.RateTable;
+
+import java.io.IOException;
+import java.time.LocalDateTime;
+import java.util.Arrays;
+
+/**
+ * Reads the {@code rates} object of a latest-rates response straight into a {@link RateTable}. Quotes in
+ * currencies {@link CurrencyOrdinals} does not know are ignored.
+ */
+public class LatestRatesHandler extends ProviderResponseHandler<RateTable> {
+
+    private final CurrencyOrdinals currencyOrdinals;
+    private final String baseCode;
+    private int[] ordinals = new int[256];
+    private double[] values = new double[256];
+    private int count;
+
+    public LatestRatesHandler(CurrencyOrdinals currencyOrdinals, String baseCode) {
+        this.currencyOrdinals = currencyOrdinals;
+        this.baseCode = baseCode;
+    }
+
+    @Override
+    protected void onPayloadToken(String field, int depth, JsonParser parser, JsonToken token) throws IOException {
+        if (depth == 2 && token.isNumeric() && "rates".equals(field)) {
+            if (count == ordinals.length) {
+                ordinals = Arrays.copyOf(ordinals, count * 2);
+                values = Arrays.copyOf(values, count * 2);
+            }
+            ordinals[count] = currencyOrdinals.intern(parser.currentName());
+            values[count] = parser.getDoubleValue();
+            count++;
+        }
+    }
+
+    @Override
+    public RateTable getResult() {
+        return RateTable.of(currencyOrdinals, baseCode, ordinals, values, count, LocalDateTime.now());
+    }
+}
@@ -0,0 +1,60 @@
+package org.example.client;
+
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+
+import java.io.IOException;
+import java.util.StringJoiner;
+
+/**
+ * Common envelope of the exchange rate provider's responses: a top-level {@code success} flag, an optional
+ * {@code error} and the payload fields, whose tokens are handed to {@link #onPayloadToken}.
+ */
+public abstract class ProviderResponseHandler<T> implements JsonStreamHandler<T> {
+
+    private int depth;
+    private String field;
+    private boolean success;
+    private final StringJoiner error = new StringJoiner(", ");
+
+    @Override
+    public final void onToken(JsonParser parser, JsonToken token) throws IOException {
+        if (token == JsonToken.END_OBJECT || token == JsonToken.END_ARRAY) {
+            depth--;
+        }
+        if (depth == 1) {
+            if (token == JsonToken.FIELD_NAME) {
+                field = parser.currentName();
+            } else if ("success".equals(field)) {
+                success = token == JsonToken.VALUE_TRUE;
+            } else if ("error".equals(field) && token.isScalarValue()) {
+                error.add(parser.getText());
+            }
+        } else if (depth > 1) {
+            if ("error".equals(field)) {
+                if (token.isScalarValue()) {
+                    error.add(parser.currentName() + "=" + parser.getText());
+                }
+            } else {
+                onPayloadToken(field, depth, parser, token);
+            }
+        }
+        if (token == JsonToken.START_OBJECT || token == JsonToken.START_ARRAY) {
+            depth++;
+        }
+    }
+
+    /**
+     * @param field the top-level field whose value {@code token} belongs to
+     * @param depth nesting depth of {@code token}; 2 for the members of a top-level object
+     */
+    protected abstract void onPayloadToken(String field, int depth, JsonParser parser, JsonToken token) throws IOException;
+
+    public boolean isSuccess() {
+        return success;
+    }
+
+    public String getError() {
+        return error.length() > 0 ? error.toString() : "Unknown error";
+    }
+}
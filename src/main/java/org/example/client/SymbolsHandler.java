@@ -0,0 +1,28 @@
+package org.example.client;
+
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import org.example.entity.Currency;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Collects the keys of the {@code symbols} object as currencies; the display names are skipped unread.
+ */
+public class SymbolsHandler extends ProviderResponseHandler<List<Currency>> {
+
+    private final List<Currency> currencies = new ArrayList<>();
+
+    @Override
+    protected void onPayloadToken(String field, int depth, JsonParser parser, JsonToken token) {
+        if (depth == 2 && token == JsonToken.FIELD_NAME && "symbols".equals(field)) {
+            currencies.add(new Currency(parser.currentName()));
+        }
+    }
+
+    @Override
+    public List<Currency> getResult() {
+        return currencies;
+    }
+}
@@ -0,0 +1,115 @@
+package org.example.client;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.apache.hc.client5.http.async.methods.SimpleHttpRequest;
+import org.apache.hc.client5.http.async.methods.SimpleRequestBuilder;
+import org.apache.hc.client5.http.async.methods.SimpleRequestProducer;
+import org.apache.hc.client5.http.impl.async.CloseableHttpAsyncClient;
+import org.apache.hc.client5.http.impl.nio.PoolingAsyncClientConnectionManager;
+import org.apache.hc.client5.http.protocol.HttpClientContext;
+import org.apache.hc.core5.http.EndpointDetails;
+import org.apache.hc.core5.http.HttpVersion;
+import org.apache.hc.core5.pool.PoolStats;
+import org.example.exception.ExternalApiException;
+import org.example.model.UpstreamClientStats;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Non-blocking HttpClient 5 client for the exchange rate provider. The I/O reactor multiplexes all
+ * requests over a bounded per-route pool (HTTP/2 streams when negotiated), so refresh threads only
+ * park on the response future and never hold a pool lock while waiting for a connection. Response bodies
+ * are parsed as they arrive by a {@link JsonStreamHandler}.
+ */
+@Component
+public class UpstreamClient {
+
+    private final CloseableHttpAsyncClient httpClient;
+    private final PoolingAsyncClientConnectionManager connectionManager;
+    private final MeterRegistry meterRegistry;
+
+    private final LongAdder requests = new LongAdder();
+    private final LongAdder failures = new LongAdder();
+    private final LongAdder reusedConnectionRequests = new LongAdder();
+    private final LongAdder http2Requests = new LongAdder();
+
+    public UpstreamClient(CloseableHttpAsyncClient upstreamHttpClient,
+                          PoolingAsyncClientConnectionManager upstreamConnectionManager,
+                          MeterRegistry meterRegistry) {
+        this.httpClient = upstreamHttpClient;
+        this.connectionManager = upstreamConnectionManager;
+        this.meterRegistry = meterRegistry;
+        Gauge.builder("upstream.pool.connections", upstreamConnectionManager, manager -> manager.getTotalStats().getLeased())
+                .tag("state", "leased")
+                .register(meterRegistry);
+        Gauge.builder("upstream.pool.connections", upstreamConnectionManager, manager -> manager.getTotalStats().getAvailable())
+                .tag("state", "available")
+                .register(meterRegistry);
+        Gauge.builder("upstream.pool.pending", upstreamConnectionManager, manager -> manager.getTotalStats().getPending())
+                .description("Requests waiting for a pooled connection")
+                .register(meterRegistry);
+    }
+
+    public <T> T get(String uri, JsonStreamHandler<T> handler) {
+        SimpleHttpRequest request = SimpleRequestBuilder.get(uri).build();
+        HttpClientContext context = HttpClientContext.create();
+        requests.increment();
+        long start = System.nanoTime();
+        String outcome = "failure";
+        try {
+            Future<T> future = httpClient.execute(
+                    SimpleRequestProducer.create(request), new JsonStreamConsumer<>(handler), context, null);
+            T result = future.get();
+            recordConnection(context);
+            outcome = "success";
+            return result;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            failures.increment();
+            throw new ExternalApiException("Interrupted while calling external API");
+        } catch (ExecutionException e) {
+            failures.increment();
+            throw new ExternalApiException("External API request failed: " + e.getCause().getMessage());
+        } finally {
+            requestTimer(request.getPath(), outcome).record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        }
+    }
+
+    /**
+     * Latency histogram per endpoint; the path is tagged without its query string, which carries the access key.
+     */
+    private Timer requestTimer(String pathAndQuery, String outcome) {
+        int query = pathAndQuery.indexOf('?');
+        return Timer.builder("upstream.requests")
+                .description("Upstream request latency, including body parsing")
+                .tag("endpoint", query >= 0 ? pathAndQuery.substring(0, query) : pathAndQuery)
+                .tag("outcome", outcome)
+                .publishPercentileHistogram()
+                .minimumExpectedValue(Duration.ofMillis(5))
+                .maximumExpectedValue(Duration.ofSeconds(30))
+                .register(meterRegistry);
+    }
+
+    public UpstreamClientStats getStats() {
+        PoolStats pool = connectionManager.getTotalStats();
+        return new UpstreamClientStats(requests.sum(), failures.sum(), reusedConnectionRequests.sum(), http2Requests.sum(),
+                pool.getLeased(), pool.getAvailable(), pool.getPending(), pool.getMax());
+    }
+
+    private void recordConnection(HttpClientContext context) {
+        EndpointDetails endpoint = context.getEndpointDetails();
+        if (endpoint != null && endpoint.getRequestCount() > 1) {
+            reusedConnectionRequests.increment();
+        }
+        if (HttpVersion.HTTP_2.equals(context.getProtocolVersion())) {
+            http2Requests.increment();
+        }
+    }
+}
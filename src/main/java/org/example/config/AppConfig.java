@@ -1,64 +1,144 @@
 package org.example.config;
 
-import org.apache.hc.client5.http.impl.classic.CloseableHttpClient;
-import org.apache.hc.client5.http.impl.classic.HttpClients;
-import org.apache.hc.client5.http.impl.io.PoolingHttpClientConnectionManagerBuilder;
-import org.apache.hc.core5.http.io.SocketConfig;
+import org.apache.hc.client5.http.config.ConnectionConfig;
+import org.apache.hc.client5.http.config.RequestConfig;
+import org.apache.hc.client5.http.config.TlsConfig;
+import org.apache.hc.client5.http.impl.async.CloseableHttpAsyncClient;
+import org.apache.hc.client5.http.impl.async.HttpAsyncClients;
+import org.apache.hc.client5.http.impl.nio.PoolingAsyncClientConnectionManager;
+import org.apache.hc.client5.http.impl.nio.PoolingAsyncClientConnectionManagerBuilder;
+import org.apache.hc.core5.http2.HttpVersionPolicy;
+import org.apache.hc.core5.reactor.IOReactorConfig;
+import org.apache.hc.core5.util.TimeValue;
 import org.apache.hc.core5.util.Timeout;
 import org.example.cache.CacheNames;
+import org.example.cache.EvictionStrategy;
+import org.example.cache.RateTableCodec;
+import org.example.cache.RateTableWeigher;
+import org.example.cache.SharedCacheStore;
 import org.example.cache.TtlCache;
+import org.example.cache.TtlCacheMeterBinderProvider;
+import org.example.cache.TwoLevelCache;
+import org.example.cache.TwoLevelCacheMeterBinderProvider;
+import org.example.model.CurrencyOrdinals;
+import org.springframework.beans.factory.ObjectProvider;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cache.Cache;
 import org.springframework.cache.CacheManager;
 import org.springframework.cache.annotation.EnableCaching;
 import org.springframework.cache.support.SimpleCacheManager;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
-import org.springframework.http.client.HttpComponentsClientHttpRequestFactory;
-import org.springframework.web.client.RestTemplate;
 
 import java.time.Duration;
 import java.util.Arrays;
+import java.util.List;
 
 @Configuration
 @EnableCaching
 public class AppConfig {
 
-    @Value("${resttemplate.connect.timeout}")
+    @Value("${external.api.client.connect.timeout}")
     private int connectTimeout;
 
-    @Value("${resttemplate.read.timeout}")
-    private int readTimeout;
+    @Value("${external.api.client.response.timeout}")
+    private int responseTimeout;
 
-    @Value("${resttemplate.connection.request.timeout}")
+    @Value("${external.api.client.connection.request.timeout}")
     private int connectionRequestTimeout;
 
+    @Value("${external.api.client.max.connections.per.route}")
+    private int maxConnectionsPerRoute;
+
+    @Value("${external.api.client.max.connections.total}")
+    private int maxConnectionsTotal;
+
+    @Value("${cache.currencies.maximum.size}")
+    private long currenciesMaximumSize;
+
+    @Value("${cache.exchangerates.maximum.weight}")
+    private long exchangeRatesMaximumWeight;
+
+    @Value("${cache.exchangerates.eviction.strategy}")
+    private EvictionStrategy exchangeRatesEvictionStrategy;
+
+    @Value("${cache.exchangerates.refresh.ahead.ratio}")
+    private double exchangeRatesRefreshAheadRatio;
+
+    @Value("${exchange.rates.response.gzip.enabled}")
+    private boolean gzipResponses;
+
+    @Value("${cache.shared.namespace}")
+    private String sharedCacheNamespace;
+
     @Bean
-    public RestTemplate restTemplate() {
-        SocketConfig socketConfig = SocketConfig.custom()
-                .setSoTimeout(Timeout.ofMilliseconds(readTimeout))
+    public PoolingAsyncClientConnectionManager upstreamConnectionManager() {
+        return PoolingAsyncClientConnectionManagerBuilder.create()
+                .setMaxConnPerRoute(maxConnectionsPerRoute)
+                .setMaxConnTotal(maxConnectionsTotal)
+                .setDefaultConnectionConfig(ConnectionConfig.custom()
+                        .setConnectTimeout(Timeout.ofMilliseconds(connectTimeout))
+                        .setSocketTimeout(Timeout.ofMilliseconds(responseTimeout))
+                        .setTimeToLive(TimeValue.ofMinutes(5))
+                        .build())
+                // HTTP/2 when the provider offers it through ALPN, HTTP/1.1 keep-alive otherwise
+                .setDefaultTlsConfig(TlsConfig.custom()
+                        .setVersionPolicy(HttpVersionPolicy.NEGOTIATE)
+                        .build())
                 .build();
+    }
 
-        CloseableHttpClient httpClient = HttpClients.custom()
-                .setConnectionManager(PoolingHttpClientConnectionManagerBuilder.create()
-                        .setDefaultSocketConfig(socketConfig)
+    @Bean
+    public CloseableHttpAsyncClient upstreamHttpClient(PoolingAsyncClientConnectionManager upstreamConnectionManager) {
+        CloseableHttpAsyncClient httpClient = HttpAsyncClients.custom()
+                .setConnectionManager(upstreamConnectionManager)
+                .setIOReactorConfig(IOReactorConfig.custom()
+                        .setSoTimeout(Timeout.ofMilliseconds(responseTimeout))
                         .build())
+                .setDefaultRequestConfig(RequestConfig.custom()
+                        .setConnectionRequestTimeout(Timeout.ofMilliseconds(connectionRequestTimeout))
+                        .setResponseTimeout(Timeout.ofMilliseconds(responseTimeout))
+                        .build())
+                .evictIdleConnections(TimeValue.ofMinutes(1))
                 .build();
+        httpClient.start();
+        return httpClient;
+    }
 
-        HttpComponentsClientHttpRequestFactory requestFactory = new HttpComponentsClientHttpRequestFactory(httpClient);
-        requestFactory.setConnectionRequestTimeout(connectionRequestTimeout);
-        requestFactory.setConnectTimeout(connectTimeout);
-
-        return new RestTemplate(requestFactory);
+    @Bean
+    public CurrencyOrdinals currencyOrdinals(@Value("${exchange.rates.currencies.extra}") List<String> extraCurrencies,
+                                             @Value("${exchange.rates.currencies.max}") int maxCurrencies) {
+        return CurrencyOrdinals.withIsoCodes(extraCurrencies, maxCurrencies);
     }
 
     @Bean
-    public CacheManager cacheManager() {
+    public CacheManager cacheManager(ObjectProvider<SharedCacheStore> sharedCacheStore, CurrencyOrdinals currencyOrdinals) {
         SimpleCacheManager cacheManager = new SimpleCacheManager();
 
-        TtlCache currenciesCache = new TtlCache(CacheNames.CURRENCIES, Duration.ofDays(1));
-        TtlCache exchangeRatesCache = new TtlCache(CacheNames.EXCHANGE_RATES, Duration.ofHours(1));
+        TtlCache currenciesCache = TtlCache.builder(CacheNames.CURRENCIES, Duration.ofDays(1))
+                .maximumSize(currenciesMaximumSize)
+                .build();
+        TtlCache exchangeRatesCache = TtlCache.builder(CacheNames.EXCHANGE_RATES, Duration.ofHours(1))
+                .maximumWeight(exchangeRatesMaximumWeight, new RateTableWeigher(gzipResponses))
+                .evictionStrategy(exchangeRatesEvictionStrategy)
+                .refreshAheadRatio(exchangeRatesRefreshAheadRatio)
+                .build();
+        SharedCacheStore sharedStore = sharedCacheStore.getIfAvailable();
+        Cache exchangeRates = sharedStore != null
+                ? new TwoLevelCache<>(exchangeRatesCache, sharedStore, new RateTableCodec(currencyOrdinals), sharedCacheNamespace)
+                : exchangeRatesCache;
 
-        cacheManager.setCaches(Arrays.asList(currenciesCache, exchangeRatesCache));
+        cacheManager.setCaches(Arrays.asList(currenciesCache, exchangeRates));
         return cacheManager;
     }
+
+    @Bean
+    public TtlCacheMeterBinderProvider ttlCacheMeterBinderProvider() {
+        return new TtlCacheMeterBinderProvider();
+    }
+
+    @Bean
+    public TwoLevelCacheMeterBinderProvider twoLevelCacheMeterBinderProvider() {
+        return new TwoLevelCacheMeterBinderProvider();
+    }
 }
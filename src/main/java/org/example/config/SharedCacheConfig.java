@@ -0,0 +1,22 @@
+package org.example.config;
+
+import org.example.cache.RedisSharedCacheStore;
+import org.example.cache.SharedCacheStore;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.data.redis.connection.RedisConnectionFactory;
+
+/**
+ * Selects the shared cache level with {@code cache.exchangerates.shared.type}; without one the exchange
+ * rate cache stays process-local.
+ */
+@Configuration
+public class SharedCacheConfig {
+
+    @Bean
+    @ConditionalOnProperty(name = "cache.exchangerates.shared.type", havingValue = "redis")
+    public SharedCacheStore redisSharedCacheStore(RedisConnectionFactory redisConnectionFactory) {
+        return new RedisSharedCacheStore(redisConnectionFactory);
+    }
+}
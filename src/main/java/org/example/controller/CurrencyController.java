@@ -1,24 +1,46 @@
 package org.example.controller;
 
-import com.fasterxml.jackson.databind.JsonNode;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
 import jakarta.validation.constraints.Pattern;
+import jakarta.validation.constraints.Positive;
 import jakarta.validation.constraints.Size;
 import org.example.entity.Currency;
-import org.example.entity.ExchangeRate;
+import org.example.entity.ExchangeRateDaily;
+import org.example.model.Conversion;
+import org.example.model.RatePoint;
+import org.example.model.RateTable;
+import org.example.model.RateUpdate;
 import org.example.service.CurrencyService;
 import org.example.service.ExchangeRateService;
+import org.example.service.RateHistoryService;
+import org.example.service.RateStreamService;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.validation.annotation.Validated;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
 
+import static org.example.util.ResponseUtil.acceptsGzip;
 import static org.example.util.ResponseUtil.errorResponse;
 
 @RestController
@@ -28,10 +50,24 @@ public class CurrencyController {
 
     private final CurrencyService currencyService;
     private final ExchangeRateService exchangeRateService;
+    private final RateHistoryService rateHistoryService;
+    private final RateStreamService rateStreamService;
+    private final boolean gzipResponses;
+    private final Timer servedSnapshotAge;
 
-    public CurrencyController(CurrencyService currencyService, ExchangeRateService exchangeRateService) {
+    public CurrencyController(CurrencyService currencyService, ExchangeRateService exchangeRateService,
+                              RateHistoryService rateHistoryService,
+                              RateStreamService rateStreamService,
+                              @Value("${exchange.rates.response.gzip.enabled}") boolean gzipResponses,
+                              MeterRegistry meterRegistry) {
         this.currencyService = currencyService;
         this.exchangeRateService = exchangeRateService;
+        this.rateHistoryService = rateHistoryService;
+        this.rateStreamService = rateStreamService;
+        this.gzipResponses = gzipResponses;
+        this.servedSnapshotAge = Timer.builder("exchange.rates.served.age")
+                .description("Age of the latest-rate snapshots served to clients")
+                .register(meterRegistry);
     }
 
     @GetMapping
@@ -50,18 +86,147 @@ public class CurrencyController {
         return new ResponseEntity<>(currency, HttpStatus.CREATED);
     }
 
+    @GetMapping("/rates")
+    public ResponseEntity<Map<String, RateTable>> getExchangeRatesBatch(
+            @RequestParam("bases")
+            @Size(min = 1, max = 200, message = "Between 1 and 200 base currencies can be requested at once")
+            List<@Pattern(regexp = "^[A-Za-z]{3}$", message = "Currency code must consist of 3 letters") String> bases) {
+        Map<String, RateTable> rateTables = exchangeRateService.getExchangeRates(bases);
+        LocalDateTime now = LocalDateTime.now();
+        for (RateTable rateTable : rateTables.values()) {
+            recordServedAge(rateTable.getTimestamp(), now);
+        }
+        return ResponseEntity.ok(rateTables);
+    }
+
+    @GetMapping(path = "/rates/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public ResponseEntity<SseEmitter> streamExchangeRates(
+            @RequestParam(value = "bases", required = false)
+            @Size(max = 200, message = "At most 200 base currencies can be subscribed to at once")
+            List<@Pattern(regexp = "^[A-Za-z]{3}$", message = "Currency code must consist of 3 letters") String> bases) {
+        Set<String> baseCodes = new LinkedHashSet<>();
+        if (bases != null) {
+            for (String base : bases) {
+                baseCodes.add(base.toUpperCase());
+            }
+        }
+        SseEmitter emitter = rateStreamService.subscribe(baseCodes, () -> baseCodes.isEmpty()
+                ? List.of()
+                : exchangeRateService.getExchangeRates(baseCodes).values());
+        if (emitter == null) {
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).build();
+        }
+        return ResponseEntity.ok(emitter);
+    }
+
     @GetMapping("/{currencyCode}/rates")
     public ResponseEntity<?> getExchangeRates(
             @PathVariable
             @Size(min = 3, max = 3, message = "Currency code must be 3 characters")
             @Pattern(regexp = "^[A-Za-z]+$", message = "Currency code must contain only letters")
-            String currencyCode) {
-        ExchangeRate exchangeRate = exchangeRateService.getExchangeRate(currencyCode);
-        if (exchangeRate == null) {
+            String currencyCode,
+            @RequestParam(value = "at", required = false)
+            @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME)
+            LocalDateTime at,
+            @RequestHeader(value = HttpHeaders.ACCEPT_ENCODING, required = false)
+            String acceptEncoding) {
+        RateTable rateTable = at != null
+                ? rateHistoryService.getExchangeRateAt(currencyCode, at)
+                : exchangeRateService.getExchangeRate(currencyCode);
+        if (rateTable == null) {
             return ResponseEntity.status(HttpStatus.NOT_FOUND)
                     .body(errorResponse("Exchange rates not available for currency: " + currencyCode));
         }
-        JsonNode rates = exchangeRate.getRates();
-        return ResponseEntity.ok(rates);
+        if (at == null) {
+            recordServedAge(rateTable.getTimestamp(), LocalDateTime.now());
+        }
+        // each encoding carries its own tag; a matching If-None-Match turns this into a 304 that keeps Vary
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_JSON)
+                .varyBy(HttpHeaders.ACCEPT_ENCODING);
+        if (gzipResponses && acceptsGzip(acceptEncoding)) {
+            return response.eTag(rateTable.getGzipETag())
+                    .header(HttpHeaders.CONTENT_ENCODING, "gzip")
+                    .body(rateTable.toGzippedJsonBytes());
+        }
+        return response.eTag(rateTable.getETag()).body(rateTable.toJsonBytes());
+    }
+
+    @GetMapping("/{currencyCode}/rates/changes")
+    public ResponseEntity<RateUpdate> getChangesSince(
+            @PathVariable
+            @Size(min = 3, max = 3, message = "Currency code must be 3 characters")
+            @Pattern(regexp = "^[A-Za-z]+$", message = "Currency code must contain only letters")
+            String currencyCode,
+            @RequestParam("since") @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime since) {
+        return ResponseEntity.ok(rateHistoryService.getChangesSince(currencyCode, since));
+    }
+
+    @GetMapping("/{currencyCode}/rates/{quoteCode}")
+    public ResponseEntity<RatePoint> getRateAt(
+            @PathVariable
+            @Size(min = 3, max = 3, message = "Currency code must be 3 characters")
+            @Pattern(regexp = "^[A-Za-z]+$", message = "Currency code must contain only letters")
+            String currencyCode,
+            @PathVariable
+            @Size(min = 3, max = 3, message = "Currency code must be 3 characters")
+            @Pattern(regexp = "^[A-Za-z]+$", message = "Currency code must contain only letters")
+            String quoteCode,
+            @RequestParam("at") @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime at) {
+        return ResponseEntity.ok(rateHistoryService.getRateAt(currencyCode, quoteCode, at));
+    }
+
+    @GetMapping("/{currencyCode}/rates/{quoteCode}/history")
+    public ResponseEntity<List<RatePoint>> getRateHistory(
+            @PathVariable
+            @Size(min = 3, max = 3, message = "Currency code must be 3 characters")
+            @Pattern(regexp = "^[A-Za-z]+$", message = "Currency code must contain only letters")
+            String currencyCode,
+            @PathVariable
+            @Size(min = 3, max = 3, message = "Currency code must be 3 characters")
+            @Pattern(regexp = "^[A-Za-z]+$", message = "Currency code must contain only letters")
+            String quoteCode,
+            @RequestParam("from") @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from,
+            @RequestParam("to") @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime to) {
+        return ResponseEntity.ok(rateHistoryService.getRateHistory(currencyCode, quoteCode, from, to));
+    }
+
+    @GetMapping("/{currencyCode}/rates/{quoteCode}/daily")
+    public ResponseEntity<List<ExchangeRateDaily>> getDailyRates(
+            @PathVariable
+            @Size(min = 3, max = 3, message = "Currency code must be 3 characters")
+            @Pattern(regexp = "^[A-Za-z]+$", message = "Currency code must contain only letters")
+            String currencyCode,
+            @PathVariable
+            @Size(min = 3, max = 3, message = "Currency code must be 3 characters")
+            @Pattern(regexp = "^[A-Za-z]+$", message = "Currency code must contain only letters")
+            String quoteCode,
+            @RequestParam("from") @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam("to") @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to) {
+        return ResponseEntity.ok(exchangeRateService.getDailyRates(currencyCode, quoteCode, from, to));
+    }
+
+    @GetMapping("/{fromCode}/convert/{toCode}")
+    public ResponseEntity<Conversion> convert(
+            @PathVariable
+            @Size(min = 3, max = 3, message = "Currency code must be 3 characters")
+            @Pattern(regexp = "^[A-Za-z]+$", message = "Currency code must contain only letters")
+            String fromCode,
+            @PathVariable
+            @Size(min = 3, max = 3, message = "Currency code must be 3 characters")
+            @Pattern(regexp = "^[A-Za-z]+$", message = "Currency code must contain only letters")
+            String toCode,
+            @RequestParam("amount")
+            @Positive(message = "Amount must be positive")
+            BigDecimal amount) {
+        Conversion conversion = exchangeRateService.convert(fromCode, toCode, amount);
+        recordServedAge(conversion.timestamp(), LocalDateTime.now());
+        return ResponseEntity.ok(conversion);
+    }
+
+    private void recordServedAge(LocalDateTime snapshotTimestamp, LocalDateTime now) {
+        if (snapshotTimestamp != null) {
+            servedSnapshotAge.record(Duration.between(snapshotTimestamp, now));
+        }
     }
 }
@@ -0,0 +1,128 @@
+package org.example.entity;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.IdClass;
+import jakarta.persistence.Table;
+import org.hibernate.annotations.Immutable;
+
+import java.io.Serializable;
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.Objects;
+
+/**
+ * Daily open/high/low/close of one quote against one base currency, rolled up from the raw
+ * {@code exchange_rate} snapshots by {@code rollup_exchange_rate_daily}.
+ */
+@Entity
+@Immutable
+@Table(name = "exchange_rate_daily")
+@IdClass(ExchangeRateDaily.Key.class)
+public class ExchangeRateDaily {
+
+    @Id
+    @JsonIgnore
+    @Column(name = "currency_id")
+    private Long currencyId;
+
+    @Id
+    @Column(name = "quote_code")
+    private String quoteCode;
+
+    @Id
+    @Column(name = "day")
+    private LocalDate day;
+
+    @Column(name = "open", nullable = false)
+    private BigDecimal open;
+
+    @Column(name = "high", nullable = false)
+    private BigDecimal high;
+
+    @Column(name = "low", nullable = false)
+    private BigDecimal low;
+
+    @Column(name = "close", nullable = false)
+    private BigDecimal close;
+
+    @Column(name = "samples", nullable = false)
+    private int samples;
+
+    public ExchangeRateDaily() {}
+
+    public ExchangeRateDaily(Long currencyId, String quoteCode, LocalDate day,
+                             BigDecimal open, BigDecimal high, BigDecimal low, BigDecimal close, int samples) {
+        this.currencyId = currencyId;
+        this.quoteCode = quoteCode;
+        this.day = day;
+        this.open = open;
+        this.high = high;
+        this.low = low;
+        this.close = close;
+        this.samples = samples;
+    }
+
+    public Long getCurrencyId() {
+        return currencyId;
+    }
+
+    public String getQuoteCode() {
+        return quoteCode;
+    }
+
+    public LocalDate getDay() {
+        return day;
+    }
+
+    public BigDecimal getOpen() {
+        return open;
+    }
+
+    public BigDecimal getHigh() {
+        return high;
+    }
+
+    public BigDecimal getLow() {
+        return low;
+    }
+
+    public BigDecimal getClose() {
+        return close;
+    }
+
+    public int getSamples() {
+        return samples;
+    }
+
+    public static class Key implements Serializable {
+
+        private Long currencyId;
+        private String quoteCode;
+        private LocalDate day;
+
+        public Key() {}
+
+        public Key(Long currencyId, String quoteCode, LocalDate day) {
+            this.currencyId = currencyId;
+            this.quoteCode = quoteCode;
+            this.day = day;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) return true;
+            if (!(o instanceof Key key)) return false;
+            return Objects.equals(currencyId, key.currencyId)
+                    && Objects.equals(quoteCode, key.quoteCode)
+                    && Objects.equals(day, key.day);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(currencyId, quoteCode, day);
+        }
+    }
+}
@@ -0,0 +1,73 @@
+package org.example.entity;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.JoinColumn;
+import jakarta.persistence.MapsId;
+import jakarta.persistence.OneToOne;
+import jakarta.persistence.Table;
+import org.hibernate.annotations.Immutable;
+import org.hibernate.annotations.JdbcTypeCode;
+import org.hibernate.type.SqlTypes;
+
+import java.time.LocalDateTime;
+
+/**
+ * Read model holding the newest {@link ExchangeRate} of every currency. Maintained by the
+ * {@code trg_exchange_rate_latest} trigger on insert into {@code exchange_rate}; never written by the application.
+ */
+@Entity
+@Immutable
+@Table(name = "latest_exchange_rate")
+public class LatestExchangeRate {
+
+    @Id
+    private Long currencyId;
+
+    @MapsId
+    @OneToOne(optional = false)
+    @JoinColumn(name = "currency_id")
+    private Currency currency;
+
+    @Column(name = "exchange_rate_id", nullable = false)
+    private Long exchangeRateId;
+
+    @JdbcTypeCode(SqlTypes.JSON)
+    @Column(name = "rates", nullable = false, columnDefinition = "jsonb")
+    private JsonNode rates;
+
+    @Column(name = "timestamp", nullable = false)
+    private LocalDateTime timestamp;
+
+    public LatestExchangeRate() {}
+
+    public LatestExchangeRate(Currency currency, Long exchangeRateId, JsonNode rates, LocalDateTime timestamp) {
+        this.currencyId = currency.getId();
+        this.currency = currency;
+        this.exchangeRateId = exchangeRateId;
+        this.rates = rates;
+        this.timestamp = timestamp;
+    }
+
+    public Long getCurrencyId() {
+        return currencyId;
+    }
+
+    public Currency getCurrency() {
+        return currency;
+    }
+
+    public Long getExchangeRateId() {
+        return exchangeRateId;
+    }
+
+    public JsonNode getRates() {
+        return rates;
+    }
+
+    public LocalDateTime getTimestamp() {
+        return timestamp;
+    }
+}
@@ -0,0 +1,93 @@
+package org.example.entity;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.IdClass;
+import jakarta.persistence.Table;
+import org.hibernate.annotations.Immutable;
+
+import java.io.Serializable;
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.Objects;
+
+/**
+ * One quote of an {@link ExchangeRate} snapshot, normalized by the {@code trg_exchange_rate_quotes} trigger
+ * so that a single pair can be looked up by index instead of parsing the snapshot's JSON.
+ */
+@Entity
+@Immutable
+@Table(name = "rate_quote")
+@IdClass(RateQuote.Key.class)
+public class RateQuote {
+
+    @Id
+    @Column(name = "base_currency_id")
+    private Long baseCurrencyId;
+
+    @Id
+    @Column(name = "quote_currency_id")
+    private Long quoteCurrencyId;
+
+    @Id
+    @Column(name = "timestamp")
+    private LocalDateTime timestamp;
+
+    @Column(name = "snapshot_id", nullable = false)
+    private Long snapshotId;
+
+    @Column(name = "rate", nullable = false)
+    private BigDecimal rate;
+
+    public RateQuote() {}
+
+    public Long getBaseCurrencyId() {
+        return baseCurrencyId;
+    }
+
+    public Long getQuoteCurrencyId() {
+        return quoteCurrencyId;
+    }
+
+    public LocalDateTime getTimestamp() {
+        return timestamp;
+    }
+
+    public Long getSnapshotId() {
+        return snapshotId;
+    }
+
+    public BigDecimal getRate() {
+        return rate;
+    }
+
+    public static class Key implements Serializable {
+
+        private Long baseCurrencyId;
+        private Long quoteCurrencyId;
+        private LocalDateTime timestamp;
+
+        public Key() {}
+
+        public Key(Long baseCurrencyId, Long quoteCurrencyId, LocalDateTime timestamp) {
+            this.baseCurrencyId = baseCurrencyId;
+            this.quoteCurrencyId = quoteCurrencyId;
+            this.timestamp = timestamp;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) return true;
+            if (!(o instanceof Key key)) return false;
+            return Objects.equals(baseCurrencyId, key.baseCurrencyId)
+                    && Objects.equals(quoteCurrencyId, key.quoteCurrencyId)
+                    && Objects.equals(timestamp, key.timestamp);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(baseCurrencyId, quoteCurrencyId, timestamp);
+        }
+    }
+}
@@ -0,0 +1,41 @@
+package org.example.entity;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.Table;
+
+import java.time.OffsetDateTime;
+
+/**
+ * Time-limited claim of one replica on a scheduled job. Acquired and renewed only through
+ * {@link org.example.repository.SchedulerLeaseRepository#tryAcquire}, against the database clock.
+ */
+@Entity
+@Table(name = "scheduler_lease")
+public class SchedulerLease {
+
+    @Id
+    @Column(name = "name")
+    private String name;
+
+    @Column(name = "holder", nullable = false)
+    private String holder;
+
+    @Column(name = "expires_at", nullable = false)
+    private OffsetDateTime expiresAt;
+
+    public SchedulerLease() {}
+
+    public String getName() {
+        return name;
+    }
+
+    public String getHolder() {
+        return holder;
+    }
+
+    public OffsetDateTime getExpiresAt() {
+        return expiresAt;
+    }
+}
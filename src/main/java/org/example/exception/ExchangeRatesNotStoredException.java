@@ -0,0 +1,11 @@
+package org.example.exception;
+
+/**
+ * Thrown on a replica without the refresh lease when the leader has not stored any snapshot of the requested
+ * base yet; followers never fetch from upstream themselves, so the request can only succeed later.
+ */
+public class ExchangeRatesNotStoredException extends RuntimeException {
+    public ExchangeRatesNotStoredException(String message) {
+        super(message);
+    }
+}
@@ -20,6 +20,12 @@ public class GlobalExceptionHandler {
         return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body(ResponseUtil.errorResponse(ex.getMessage()));
     }
 
+    @ExceptionHandler(ExchangeRatesNotStoredException.class)
+    public ResponseEntity<?> handleExchangeRatesNotStoredException(ExchangeRatesNotStoredException ex) {
+        logger.warn("Exchange rates not stored yet: {}", ex.getMessage());
+        return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).body(ResponseUtil.errorResponse(ex.getMessage()));
+    }
+
     @ExceptionHandler(CurrencyNotFoundException.class)
     public ResponseEntity<?> handleCurrencyNotFoundException(CurrencyNotFoundException ex) {
         logger.warn("Currency not found: {}", ex.getMessage());
@@ -42,6 +48,11 @@ public class GlobalExceptionHandler {
         return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(ResponseUtil.errorResponse(errorMessage));
     }
 
+    @ExceptionHandler(InvalidRangeException.class)
+    public ResponseEntity<?> handleInvalidRangeException(InvalidRangeException ex) {
+        return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(ResponseUtil.errorResponse(ex.getMessage()));
+    }
+
     @ExceptionHandler(RuntimeException.class)
     public ResponseEntity<?> handleRuntimeException(RuntimeException ex) {
         logger.error("Unhandled exception: ", ex);
@@ -0,0 +1,7 @@
+package org.example.exception;
+
+public class InvalidRangeException extends RuntimeException {
+    public InvalidRangeException(String message) {
+        super(message);
+    }
+}
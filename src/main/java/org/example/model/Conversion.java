@@ -0,0 +1,12 @@
+package org.example.model;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+/**
+ * Result of converting {@code amount} units of {@code from} into {@code to} at the cached rate. The result is
+ * rounded half-even to the minor units of {@code to}. Jackson writes this small record directly; unlike the
+ * rate tables it depends on the requested amount, so there is no body worth pre-serializing.
+ */
+public record Conversion(String from, String to, BigDecimal amount, double rate, BigDecimal result, LocalDateTime timestamp) {
+}
@@ -0,0 +1,91 @@
+package org.example.model;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Registry assigning every known currency code a small, stable ordinal. Ordinals index the rate arrays of
+ * {@link RateTable}; they are never reused and are not persisted. Only codes of the known currency set get an
+ * ordinal, and at most {@code maxSize} of them, so codes from upstream responses or shared cache entries
+ * cannot grow the registry, and with it every rate array, without bound. Unknown codes are ignored.
+ */
+public class CurrencyOrdinals {
+
+    private static final Logger logger = LoggerFactory.getLogger(CurrencyOrdinals.class);
+
+    private final Set<String> knownCodes;
+    private final int maxSize;
+    private final ConcurrentHashMap<String, Integer> ordinals = new ConcurrentHashMap<>();
+    private volatile String[] codes = new String[0];
+
+    public CurrencyOrdinals(Collection<String> knownCodes, int maxSize) {
+        if (maxSize <= 0) {
+            throw new IllegalArgumentException("Maximum number of currency ordinals must be positive: " + maxSize);
+        }
+        this.knownCodes = Set.copyOf(knownCodes);
+        this.maxSize = maxSize;
+    }
+
+    /**
+     * @return a registry accepting the ISO 4217 codes known to the JVM plus {@code extraCodes}
+     */
+    public static CurrencyOrdinals withIsoCodes(Collection<String> extraCodes, int maxSize) {
+        Set<String> knownCodes = new HashSet<>(extraCodes);
+        for (java.util.Currency currency : java.util.Currency.getAvailableCurrencies()) {
+            knownCodes.add(currency.getCurrencyCode());
+        }
+        return new CurrencyOrdinals(knownCodes, maxSize);
+    }
+
+    /**
+     * @return the ordinal of {@code code}, assigned on first use, or -1 if the code is not a known currency
+     *         or the registry is full
+     */
+    public int intern(String code) {
+        Integer ordinal = ordinals.get(code);
+        if (ordinal != null) {
+            return ordinal;
+        }
+        if (!knownCodes.contains(code)) {
+            return -1;
+        }
+        synchronized (ordinals) {
+            ordinal = ordinals.get(code);
+            if (ordinal != null) {
+                return ordinal;
+            }
+            int next = codes.length;
+            if (next == maxSize) {
+                logger.warn("Currency ordinal registry is full at {} codes, ignoring {}", maxSize, code);
+                return -1;
+            }
+            String[] updated = Arrays.copyOf(codes, next + 1);
+            updated[next] = code;
+            codes = updated;
+            ordinals.put(code, next);
+            return next;
+        }
+    }
+
+    /**
+     * @return the ordinal of {@code code}, or -1 if the code has never been interned
+     */
+    public int ordinalOf(String code) {
+        Integer ordinal = ordinals.get(code);
+        return ordinal != null ? ordinal : -1;
+    }
+
+    public String codeOf(int ordinal) {
+        return codes[ordinal];
+    }
+
+    public int size() {
+        return codes.length;
+    }
+}
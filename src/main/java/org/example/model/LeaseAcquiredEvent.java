@@ -0,0 +1,7 @@
+package org.example.model;
+
+/**
+ * Published when this replica takes a scheduler lease it did not hold before.
+ */
+public record LeaseAcquiredEvent(String leaseName, String holder) {
+}
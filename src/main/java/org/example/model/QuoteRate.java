@@ -0,0 +1,6 @@
+package org.example.model;
+
+import java.math.BigDecimal;
+
+public record QuoteRate(String quoteCode, BigDecimal rate) {
+}
@@ -0,0 +1,7 @@
+package org.example.model;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+public record RatePoint(LocalDateTime timestamp, BigDecimal rate) {
+}
@@ -0,0 +1,263 @@
+package org.example.model;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.annotation.JsonSerialize;
+import com.fasterxml.jackson.databind.node.JsonNodeFactory;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import org.example.entity.ExchangeRate;
+import org.example.entity.LatestExchangeRate;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.LocalDateTime;
+import java.util.Arrays;
+import java.util.HexFormat;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Immutable rates of one base currency, stored as a dense {@code double[]} indexed by
+ * {@link CurrencyOrdinals} ordinal. Quotes the snapshot does not contain, and quotes in currencies the
+ * registry does not know, are {@code NaN}.
+ * This is what the exchangeRates cache holds; {@link ExchangeRate} is only the persistent form.
+ * The serialized JSON, its gzip form and the ETag derived from it are computed once and kept with the table.
+ */
+@JsonSerialize(using = RateTableSerializer.class)
+public final class RateTable {
+
+    private static final JsonFactory JSON_FACTORY = new JsonFactory();
+
+    private final CurrencyOrdinals ordinals;
+    private final String baseCode;
+    private final LocalDateTime timestamp;
+    private final double[] rates;
+
+    private volatile byte[] json;
+    private volatile byte[] gzippedJson;
+    private volatile String etag;
+    private volatile String gzipEtag;
+
+    public RateTable(CurrencyOrdinals ordinals, String baseCode, LocalDateTime timestamp, double[] rates) {
+        int baseOrdinal = ordinals.intern(baseCode);
+        this.ordinals = ordinals;
+        this.baseCode = baseOrdinal >= 0 ? ordinals.codeOf(baseOrdinal) : baseCode;
+        this.timestamp = timestamp;
+        this.rates = rates;
+    }
+
+    public static RateTable of(CurrencyOrdinals ordinals, ExchangeRate exchangeRate) {
+        return fromJson(ordinals, exchangeRate.getCurrency().getCode(), exchangeRate.getRates(), exchangeRate.getTimestamp());
+    }
+
+    public static RateTable of(CurrencyOrdinals ordinals, LatestExchangeRate latestExchangeRate) {
+        return fromJson(ordinals, latestExchangeRate.getCurrency().getCode(), latestExchangeRate.getRates(),
+                latestExchangeRate.getTimestamp());
+    }
+
+    public static RateTable fromJson(CurrencyOrdinals ordinals, String baseCode, JsonNode ratesNode, LocalDateTime timestamp) {
+        if (ratesNode == null || !ratesNode.isObject()) {
+            return new RateTable(ordinals, baseCode, timestamp, new double[0]);
+        }
+        int[] quoteOrdinals = new int[ratesNode.size()];
+        double[] values = new double[ratesNode.size()];
+        int count = 0;
+        Iterator<Map.Entry<String, JsonNode>> fields = ratesNode.fields();
+        while (fields.hasNext()) {
+            Map.Entry<String, JsonNode> field = fields.next();
+            if (field.getValue().isNumber()) {
+                quoteOrdinals[count] = ordinals.intern(field.getKey());
+                values[count] = field.getValue().doubleValue();
+                count++;
+            }
+        }
+        return of(ordinals, baseCode, quoteOrdinals, values, count, timestamp);
+    }
+
+    /**
+     * Builds a table from the first {@code count} pairs of parallel ordinal and rate arrays. Pairs with a
+     * negative ordinal, i.e. quotes the registry refused, are skipped.
+     */
+    public static RateTable of(CurrencyOrdinals ordinals, String baseCode, int[] quoteOrdinals, double[] values, int count,
+                               LocalDateTime timestamp) {
+        double[] rates = newRates(ordinals.size());
+        for (int i = 0; i < count; i++) {
+            if (quoteOrdinals[i] >= 0) {
+                rates[quoteOrdinals[i]] = values[i];
+            }
+        }
+        return new RateTable(ordinals, baseCode, timestamp, rates);
+    }
+
+    public static RateTable fromQuotes(CurrencyOrdinals ordinals, String baseCode, List<QuoteRate> quotes, LocalDateTime timestamp) {
+        int[] quoteOrdinals = new int[quotes.size()];
+        double[] values = new double[quotes.size()];
+        for (int i = 0; i < quoteOrdinals.length; i++) {
+            quoteOrdinals[i] = ordinals.intern(quotes.get(i).quoteCode());
+            values[i] = quotes.get(i).rate().doubleValue();
+        }
+        return of(ordinals, baseCode, quoteOrdinals, values, quoteOrdinals.length, timestamp);
+    }
+
+    public static double[] newRates(int length) {
+        double[] rates = new double[length];
+        Arrays.fill(rates, Double.NaN);
+        return rates;
+    }
+
+    public String getBaseCode() {
+        return baseCode;
+    }
+
+    public LocalDateTime getTimestamp() {
+        return timestamp;
+    }
+
+    /**
+     * @return the rate of {@code quoteCode} per one unit of the base currency, or {@code NaN} if not quoted
+     */
+    public double getRate(String quoteCode) {
+        return getRate(ordinals.ordinalOf(quoteCode));
+    }
+
+    /**
+     * @return the currency code of {@code ordinal} in the registry this table was built with
+     */
+    public String quoteCode(int ordinal) {
+        return ordinals.codeOf(ordinal);
+    }
+
+    public double getRate(int ordinal) {
+        return ordinal >= 0 && ordinal < rates.length ? rates[ordinal] : Double.NaN;
+    }
+
+    /**
+     * @return quotes whose rate differs from {@code previous} (all quotes when {@code previous} is null),
+     *         keyed by quote code; quotes that disappeared are not reported
+     */
+    public Map<String, Double> changesSince(RateTable previous) {
+        Map<String, Double> changes = new LinkedHashMap<>();
+        for (int i = 0; i < rates.length; i++) {
+            double rate = rates[i];
+            if (!Double.isNaN(rate) && (previous == null || Double.compare(rate, previous.getRate(i)) != 0)) {
+                changes.put(ordinals.codeOf(i), rate);
+            }
+        }
+        return changes;
+    }
+
+    /**
+     * Upper bound (exclusive) of the ordinals this table may hold a rate for.
+     */
+    public int length() {
+        return rates.length;
+    }
+
+    /**
+     * @return the number of quotes this table holds a rate for
+     */
+    public int quoteCount() {
+        int count = 0;
+        for (double rate : rates) {
+            if (!Double.isNaN(rate)) {
+                count++;
+            }
+        }
+        return count;
+    }
+
+    public boolean isEmpty() {
+        for (double rate : rates) {
+            if (!Double.isNaN(rate)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * @return the UTF-8 JSON body, identical to what {@link RateTableSerializer} writes; do not modify
+     */
+    public byte[] toJsonBytes() {
+        byte[] bytes = json;
+        if (bytes == null) {
+            ByteArrayOutputStream out = new ByteArrayOutputStream(32 * rates.length + 2);
+            try (JsonGenerator generator = JSON_FACTORY.createGenerator(out)) {
+                RateTableSerializer.write(this, generator);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+            bytes = out.toByteArray();
+            json = bytes;
+        }
+        return bytes;
+    }
+
+    /**
+     * @return {@link #toJsonBytes()} gzip-compressed; do not modify
+     */
+    public byte[] toGzippedJsonBytes() {
+        byte[] bytes = gzippedJson;
+        if (bytes == null) {
+            byte[] plain = toJsonBytes();
+            ByteArrayOutputStream out = new ByteArrayOutputStream(plain.length / 2 + 32);
+            try (GZIPOutputStream gzip = new GZIPOutputStream(out)) {
+                gzip.write(plain);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+            bytes = out.toByteArray();
+            gzippedJson = bytes;
+        }
+        return bytes;
+    }
+
+    /**
+     * @return a quoted strong entity tag derived from the JSON body, so equal bodies share a tag;
+     *         the gzip body has its own tag, see {@link #getGzipETag()}
+     */
+    public String getETag() {
+        String tag = etag;
+        if (tag == null) {
+            try {
+                byte[] digest = MessageDigest.getInstance("SHA-256").digest(toJsonBytes());
+                tag = "\"" + HexFormat.of().formatHex(digest, 0, 16) + "\"";
+            } catch (NoSuchAlgorithmException e) {
+                throw new IllegalStateException(e);
+            }
+            etag = tag;
+        }
+        return tag;
+    }
+
+    /**
+     * @return the entity tag of {@link #toGzippedJsonBytes()}: {@link #getETag()} with a {@code -gzip} suffix,
+     *         since a strong tag must not be shared by different encodings of the same body
+     */
+    public String getGzipETag() {
+        String tag = gzipEtag;
+        if (tag == null) {
+            String plain = getETag();
+            tag = plain.substring(0, plain.length() - 1) + "-gzip\"";
+            gzipEtag = tag;
+        }
+        return tag;
+    }
+
+    public ObjectNode toJson() {
+        ObjectNode node = JsonNodeFactory.instance.objectNode();
+        for (int i = 0; i < rates.length; i++) {
+            if (!Double.isNaN(rates[i])) {
+                node.put(ordinals.codeOf(i), rates[i]);
+            }
+        }
+        return node;
+    }
+}
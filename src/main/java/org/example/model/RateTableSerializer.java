@@ -0,0 +1,34 @@
+package org.example.model;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.SerializerProvider;
+import com.fasterxml.jackson.databind.ser.std.StdSerializer;
+
+import java.io.IOException;
+
+/**
+ * Writes a {@link RateTable} as the flat {@code {"EUR": 0.92, ...}} object clients already consume,
+ * straight from the rate array without building a tree.
+ */
+public class RateTableSerializer extends StdSerializer<RateTable> {
+
+    public RateTableSerializer() {
+        super(RateTable.class);
+    }
+
+    @Override
+    public void serialize(RateTable rateTable, JsonGenerator generator, SerializerProvider provider) throws IOException {
+        write(rateTable, generator);
+    }
+
+    static void write(RateTable rateTable, JsonGenerator generator) throws IOException {
+        generator.writeStartObject();
+        for (int i = 0; i < rateTable.length(); i++) {
+            double rate = rateTable.getRate(i);
+            if (!Double.isNaN(rate)) {
+                generator.writeNumberField(rateTable.quoteCode(i), rate);
+            }
+        }
+        generator.writeEndObject();
+    }
+}
@@ -0,0 +1,24 @@
+package org.example.model;
+
+import com.fasterxml.jackson.databind.node.JsonNodeFactory;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+
+import java.time.LocalDateTime;
+import java.util.Map;
+
+/**
+ * Quotes of {@code baseCode} that changed with the snapshot taken at {@code timestamp}, or all of its quotes
+ * when {@code full} is set.
+ */
+public record RateUpdate(String baseCode, LocalDateTime timestamp, Map<String, Double> rates, boolean full) {
+
+    public static RateUpdate snapshot(RateTable rateTable) {
+        return new RateUpdate(rateTable.getBaseCode(), rateTable.getTimestamp(), rateTable.changesSince(null), true);
+    }
+
+    public ObjectNode ratesToJson() {
+        ObjectNode node = JsonNodeFactory.instance.objectNode();
+        rates.forEach(node::put);
+        return node;
+    }
+}
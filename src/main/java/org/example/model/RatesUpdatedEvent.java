@@ -0,0 +1,9 @@
+package org.example.model;
+
+import java.util.List;
+
+/**
+ * Published after freshly fetched or derived rate tables have been put into the exchangeRates cache.
+ */
+public record RatesUpdatedEvent(List<RateUpdate> updates) {
+}
@@ -0,0 +1,17 @@
+package org.example.model;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+
+/**
+ * Outcome of one refresh cycle: how many upstream fetches were attempted, succeeded, failed
+ * or were not attempted because the rate limiter did not grant a permit in time. Attempts are the
+ * succeeded and failed fetches only, so throttling does not lower {@link #successRatio()}.
+ */
+public record RefreshCycleStats(LocalDateTime startedAt, Duration duration,
+                                int attempted, int succeeded, int failed, int throttled) {
+
+    public double successRatio() {
+        return attempted == 0 ? 0 : (double) succeeded / attempted;
+    }
+}
@@ -0,0 +1,14 @@
+package org.example.model;
+
+/**
+ * Cumulative request counters of the upstream HTTP client and a snapshot of its connection pool.
+ * A request is counted as reused when it ran on a connection that had already served another request.
+ */
+public record UpstreamClientStats(long requests, long failures, long reusedConnectionRequests, long http2Requests,
+                                  int leasedConnections, int availableConnections, int pendingRequests,
+                                  int maxConnections) {
+
+    public double reuseRatio() {
+        return requests == 0 ? 0 : (double) reusedConnectionRequests / requests;
+    }
+}
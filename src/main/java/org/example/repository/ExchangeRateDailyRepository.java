@@ -0,0 +1,21 @@
+package org.example.repository;
+
+import org.example.entity.ExchangeRateDaily;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDate;
+import java.util.List;
+
+@Repository
+public interface ExchangeRateDailyRepository extends JpaRepository<ExchangeRateDaily, ExchangeRateDaily.Key> {
+    List<ExchangeRateDaily> findByCurrencyIdAndQuoteCodeAndDayBetweenOrderByDay(Long currencyId, String quoteCode,
+                                                                               LocalDate from, LocalDate to);
+
+    @Transactional
+    @Query(value = "SELECT rollup_exchange_rate_daily(:fromDay, :toDay)", nativeQuery = true)
+    int rollUp(@Param("fromDay") LocalDate fromDay, @Param("toDay") LocalDate toDay);
+}
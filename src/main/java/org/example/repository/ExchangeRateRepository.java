@@ -4,14 +4,41 @@ import org.example.entity.Currency;
 import org.example.entity.ExchangeRate;
 import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.time.LocalDate;
+import java.time.LocalDateTime;
 import java.util.List;
 
 @Repository
 public interface ExchangeRateRepository extends JpaRepository<ExchangeRate, Long> {
-    ExchangeRate findFirstByCurrencyOrderByTimestampDesc(Currency currency);
+    ExchangeRate findFirstByCurrencyAndTimestampLessThanEqualOrderByTimestampDesc(Currency currency, LocalDateTime at);
 
     @EntityGraph(value = "ExchangeRate.currency", type = EntityGraph.EntityGraphType.LOAD)
     List<ExchangeRate> findAll();
+
+    /**
+     * Stores the snapshots of a refresh cycle and, in the same transaction, notifies the other replicas on
+     * {@code exchange_rates_refreshed}; the notification is delivered only once the snapshots are committed.
+     */
+    @Transactional
+    default void saveRefresh(List<ExchangeRate> exchangeRates) {
+        saveAll(exchangeRates);
+        notifyRefreshed();
+    }
+
+    @Transactional
+    @Query(value = "SELECT 1 FROM pg_notify('exchange_rates_refreshed', '')", nativeQuery = true)
+    int notifyRefreshed();
+
+    @Transactional
+    @Query(value = "SELECT create_exchange_rate_partition(:monthStart)", nativeQuery = true)
+    String createPartition(@Param("monthStart") LocalDate monthStart);
+
+    @Transactional
+    @Query(value = "SELECT drop_exchange_rate_partitions(:cutoff, :archive)", nativeQuery = true)
+    int dropPartitionsBefore(@Param("cutoff") LocalDate cutoff, @Param("archive") boolean archive);
 }
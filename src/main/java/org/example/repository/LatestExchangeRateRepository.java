@@ -0,0 +1,18 @@
+package org.example.repository;
+
+import org.example.entity.Currency;
+import org.example.entity.LatestExchangeRate;
+import org.springframework.data.jpa.repository.EntityGraph;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+import java.util.Collection;
+import java.util.List;
+
+@Repository
+public interface LatestExchangeRateRepository extends JpaRepository<LatestExchangeRate, Long> {
+    LatestExchangeRate findByCurrency(Currency currency);
+
+    @EntityGraph(attributePaths = "currency")
+    List<LatestExchangeRate> findByCurrencyIn(Collection<Currency> currencies);
+}
@@ -0,0 +1,36 @@
+package org.example.repository;
+
+import org.example.entity.RateQuote;
+import org.example.model.RatePoint;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Repository
+public interface RateQuoteRepository extends JpaRepository<RateQuote, RateQuote.Key> {
+    RatePoint findFirstByBaseCurrencyIdAndQuoteCurrencyIdAndTimestampLessThanEqualOrderByTimestampDesc(
+            Long baseCurrencyId, Long quoteCurrencyId, LocalDateTime at);
+
+    List<RatePoint> findByBaseCurrencyIdAndQuoteCurrencyIdAndTimestampBetweenOrderByTimestamp(
+            Long baseCurrencyId, Long quoteCurrencyId, LocalDateTime from, LocalDateTime to);
+
+    /**
+     * Latest stored rate of every quote of the base at {@code at}: one index seek per quote currency, which also
+     * reassembles full tables from partial snapshots. Rows are {@code [quote code, rate, timestamp]}.
+     */
+    @Query(value = "SELECT c.code, q.rate, q.timestamp FROM currency c "
+            + "CROSS JOIN LATERAL (SELECT rq.rate, rq.timestamp FROM rate_quote rq "
+            + "WHERE rq.base_currency_id = :baseCurrencyId AND rq.quote_currency_id = c.id AND rq.timestamp <= :at "
+            + "ORDER BY rq.timestamp DESC LIMIT 1) q", nativeQuery = true)
+    List<Object[]> findLatestQuotesAt(@Param("baseCurrencyId") Long baseCurrencyId, @Param("at") LocalDateTime at);
+
+    @Transactional
+    @Query(value = "SELECT drop_rate_quote_partitions(:cutoff)", nativeQuery = true)
+    int dropPartitionsBefore(@Param("cutoff") LocalDate cutoff);
+}
@@ -0,0 +1,32 @@
+package org.example.repository;
+
+import org.example.entity.SchedulerLease;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+@Repository
+public interface SchedulerLeaseRepository extends JpaRepository<SchedulerLease, String> {
+
+    /**
+     * Takes the lease when it is free or expired, or extends it when {@code holder} already owns it.
+     *
+     * @return the holder when the lease is now held by it, null when another replica holds it
+     */
+    @Transactional
+    @Query(value = "INSERT INTO scheduler_lease (name, holder, expires_at) "
+            + "VALUES (:name, :holder, now() + CAST(:durationMillis AS bigint) * interval '1 millisecond') "
+            + "ON CONFLICT (name) DO UPDATE SET holder = EXCLUDED.holder, expires_at = EXCLUDED.expires_at "
+            + "WHERE scheduler_lease.holder = EXCLUDED.holder OR scheduler_lease.expires_at < now() "
+            + "RETURNING holder", nativeQuery = true)
+    String tryAcquire(@Param("name") String name, @Param("holder") String holder,
+                      @Param("durationMillis") long durationMillis);
+
+    @Modifying
+    @Transactional
+    @Query(value = "DELETE FROM scheduler_lease WHERE name = :name AND holder = :holder", nativeQuery = true)
+    int release(@Param("name") String name, @Param("holder") String holder);
+}
@@ -0,0 +1,30 @@
+package org.example.scheduler;
+
+import org.example.cache.TtlCache;
+import org.example.cache.TwoLevelCache;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+@Component
+public class CacheExpiryScheduler {
+
+    private final CacheManager cacheManager;
+
+    public CacheExpiryScheduler(CacheManager cacheManager) {
+        this.cacheManager = cacheManager;
+    }
+
+    @Scheduled(fixedRateString = "${cache.sweep.rate}", initialDelayString = "${cache.sweep.rate}")
+    public void removeExpiredEntries() {
+        for (String cacheName : cacheManager.getCacheNames()) {
+            Cache cache = cacheManager.getCache(cacheName);
+            if (cache instanceof TwoLevelCache<?> twoLevelCache) {
+                twoLevelCache.getLocalCache().cleanUp();
+            } else if (cache instanceof TtlCache ttlCache) {
+                ttlCache.cleanUp();
+            }
+        }
+    }
+}
@@ -1,26 +1,113 @@
 package org.example.scheduler;
 
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.example.client.UpstreamClient;
+import org.example.model.LeaseAcquiredEvent;
+import org.example.model.RefreshCycleStats;
+import org.example.model.UpstreamClientStats;
 import org.example.service.ExchangeRateService;
+import org.example.service.LeaderElectionService;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.context.event.EventListener;
 import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Component;
 
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Refreshes the exchange rates on the replica holding the refresh lease, every {@code scheduler.rate} and
+ * right after it takes the lease over, since the previous holder's last refresh may be up to a period old.
+ */
 @Component
 public class ExchangeRateScheduler {
 
     private static final Logger logger = LoggerFactory.getLogger(ExchangeRateScheduler.class);
 
     private final ExchangeRateService exchangeRateService;
+    private final UpstreamClient upstreamClient;
+    private final LeaderElectionService leaderElectionService;
+    private final Timer cycleTimer;
+    private final Counter succeededFetches;
+    private final Counter failedFetches;
+    private final Counter throttledFetches;
+    private final AtomicBoolean refreshing = new AtomicBoolean();
+    private volatile double lastSuccessRatio = Double.NaN;
 
-    public ExchangeRateScheduler(ExchangeRateService exchangeRateService) {
+    public ExchangeRateScheduler(ExchangeRateService exchangeRateService, UpstreamClient upstreamClient,
+                                 LeaderElectionService leaderElectionService, MeterRegistry meterRegistry) {
         this.exchangeRateService = exchangeRateService;
+        this.upstreamClient = upstreamClient;
+        this.leaderElectionService = leaderElectionService;
+        this.cycleTimer = Timer.builder("exchange.rates.refresh")
+                .description("Duration of a full exchange rate refresh cycle")
+                .register(meterRegistry);
+        this.succeededFetches = fetchCounter(meterRegistry, "succeeded");
+        this.failedFetches = fetchCounter(meterRegistry, "failed");
+        this.throttledFetches = fetchCounter(meterRegistry, "throttled");
+        Gauge.builder("exchange.rates.refresh.success.ratio", this, scheduler -> scheduler.lastSuccessRatio)
+                .description("Share of attempted upstream fetches that succeeded in the last refresh cycle")
+                .register(meterRegistry);
+    }
+
+    private static Counter fetchCounter(MeterRegistry meterRegistry, String outcome) {
+        return Counter.builder("exchange.rates.refresh.fetches")
+                .tag("outcome", outcome)
+                .register(meterRegistry);
     }
 
     @Scheduled(fixedRateString = "${scheduler.rate}", initialDelay = 1000)
     public void updateExchangeRates() {
+        if (!leaderElectionService.isLeader()) {
+            logger.info("Skipping exchange rate update, another replica holds the refresh lease");
+            return;
+        }
         logger.info("Starting scheduled task to update exchange rates");
-        exchangeRateService.updateExchangeRates();
-        logger.info("Exchange rates update completed");
+        refresh();
+    }
+
+    @EventListener
+    public void onLeaseAcquired(LeaseAcquiredEvent event) {
+        // published from the lease renewal, which must not wait for a refresh cycle
+        Thread.ofVirtual().name("exchange-rate-takeover-refresh").start(() -> {
+            logger.info("Updating exchange rates after taking over the refresh lease");
+            refresh();
+        });
+    }
+
+    /**
+     * Runs one refresh cycle unless one is already running, and records its stats.
+     */
+    void refresh() {
+        if (!refreshing.compareAndSet(false, true)) {
+            logger.info("Skipping exchange rate update, one is already running");
+            return;
+        }
+        try {
+            recordCycle(exchangeRateService.updateExchangeRates());
+        } catch (RuntimeException e) {
+            logger.error("Exchange rates update failed", e);
+        } finally {
+            refreshing.set(false);
+        }
+    }
+
+    private void recordCycle(RefreshCycleStats stats) {
+        cycleTimer.record(stats.duration());
+        succeededFetches.increment(stats.succeeded());
+        failedFetches.increment(stats.failed());
+        throttledFetches.increment(stats.throttled());
+        lastSuccessRatio = stats.successRatio();
+        logger.info("Exchange rates update completed in {} ms: {} succeeded, {} failed, {} throttled, success ratio {}",
+                stats.duration().toMillis(), stats.succeeded(), stats.failed(), stats.throttled(),
+                String.format("%.2f", stats.successRatio()));
+        UpstreamClientStats clientStats = upstreamClient.getStats();
+        logger.info("Upstream client: {} requests, {} failed, connection reuse {}, {} over HTTP/2, pool {} leased / {} available / {} pending",
+                clientStats.requests(), clientStats.failures(), String.format("%.2f", clientStats.reuseRatio()),
+                clientStats.http2Requests(), clientStats.leasedConnections(), clientStats.availableConnections(),
+                clientStats.pendingRequests());
     }
 }
@@ -0,0 +1,34 @@
+package org.example.scheduler;
+
+import org.example.service.LeaderElectionService;
+import org.example.service.PartitionMaintenanceService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDate;
+
+@Component
+public class PartitionMaintenanceScheduler {
+
+    private static final Logger logger = LoggerFactory.getLogger(PartitionMaintenanceScheduler.class);
+
+    private final PartitionMaintenanceService partitionMaintenanceService;
+    private final LeaderElectionService leaderElectionService;
+
+    public PartitionMaintenanceScheduler(PartitionMaintenanceService partitionMaintenanceService,
+                                         LeaderElectionService leaderElectionService) {
+        this.partitionMaintenanceService = partitionMaintenanceService;
+        this.leaderElectionService = leaderElectionService;
+    }
+
+    @Scheduled(cron = "${exchange.rates.partition.cron}")
+    public void maintainPartitions() {
+        if (!leaderElectionService.isLeader()) {
+            return;
+        }
+        logger.info("Starting exchange rate partition maintenance");
+        partitionMaintenanceService.maintain(LocalDate.now());
+    }
+}
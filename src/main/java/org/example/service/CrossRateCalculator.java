@@ -0,0 +1,78 @@
+package org.example.service;
+
+import org.example.model.CurrencyOrdinals;
+import org.example.model.RateTable;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.math.BigDecimal;
+import java.math.MathContext;
+import java.math.RoundingMode;
+
+/**
+ * Derives the rate table of any base currency from the table of a single pivot currency:
+ * {@code rate(base -> quote) = rate(pivot -> quote) / rate(pivot -> base)}.
+ * Derived rates are rounded half-even to {@code exchange.rates.cross.precision} significant digits
+ * (0 keeps full double precision); the base's own rate is exactly 1.
+ */
+@Component
+public class CrossRateCalculator {
+
+    private final CurrencyOrdinals currencyOrdinals;
+    private final boolean enabled;
+    private final String pivotCode;
+    private final MathContext mathContext;
+
+    public CrossRateCalculator(CurrencyOrdinals currencyOrdinals,
+                               @Value("${exchange.rates.triangulation.enabled}") boolean enabled,
+                               @Value("${exchange.rates.pivot}") String pivotCode,
+                               @Value("${exchange.rates.cross.precision}") int precision) {
+        this.currencyOrdinals = currencyOrdinals;
+        this.enabled = enabled;
+        this.pivotCode = pivotCode.toUpperCase();
+        this.mathContext = precision > 0 ? new MathContext(precision, RoundingMode.HALF_EVEN) : null;
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public String getPivotCode() {
+        return pivotCode;
+    }
+
+    /**
+     * @return the derived table, or {@code null} if the pivot table has no usable rate for {@code baseCode}
+     */
+    public RateTable derive(RateTable pivotTable, String baseCode) {
+        if (baseCode.equals(pivotTable.getBaseCode())) {
+            return pivotTable;
+        }
+        double pivotToBase = pivotTable.getRate(baseCode);
+        if (Double.isNaN(pivotToBase) || pivotToBase <= 0) {
+            return null;
+        }
+        int pivotOrdinal = currencyOrdinals.intern(pivotTable.getBaseCode());
+        int baseOrdinal = currencyOrdinals.intern(baseCode);
+        if (pivotOrdinal < 0 || baseOrdinal < 0) {
+            return null;
+        }
+        double[] rates = RateTable.newRates(Math.max(pivotTable.length(), Math.max(pivotOrdinal, baseOrdinal) + 1));
+        for (int i = 0; i < pivotTable.length(); i++) {
+            double pivotToQuote = pivotTable.getRate(i);
+            if (!Double.isNaN(pivotToQuote)) {
+                rates[i] = round(pivotToQuote / pivotToBase);
+            }
+        }
+        rates[baseOrdinal] = 1.0;
+        rates[pivotOrdinal] = round(1.0 / pivotToBase);
+        return new RateTable(currencyOrdinals, baseCode, pivotTable.getTimestamp(), rates);
+    }
+
+    private double round(double rate) {
+        if (mathContext == null || Double.isInfinite(rate)) {
+            return rate;
+        }
+        return new BigDecimal(rate).round(mathContext).doubleValue();
+    }
+}
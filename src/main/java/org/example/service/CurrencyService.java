@@ -4,18 +4,25 @@ import org.example.cache.CacheNames;
 import org.example.entity.Currency;
 import org.example.exception.CurrencyNotFoundException;
 import org.example.repository.CurrencyRepository;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
 import org.springframework.cache.annotation.CacheEvict;
 import org.springframework.cache.annotation.Cacheable;
+import org.springframework.context.event.EventListener;
 import org.springframework.scheduling.annotation.Async;
 import org.springframework.stereotype.Service;
 
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicReference;
 
 @Service
 public class CurrencyService {
 
     private final CurrencyRepository currencyRepository;
     private final ExternalApiService externalApiService;
+    private final AtomicReference<Map<String, Currency>> currencyIndex = new AtomicReference<>(Map.of());
 
     public CurrencyService(CurrencyRepository currencyRepository, ExternalApiService externalApiService) {
         this.currencyRepository = currencyRepository;
@@ -35,9 +42,22 @@ public class CurrencyService {
     public void initializeCurrencies() {
         List<Currency> currencies = externalApiService.fetchAllCurrencies();
         currencyRepository.saveAll(currencies);
+        rebuildCurrencyIndex();
         evictCurrenciesCache();
     }
 
+    /**
+     * Replaces the in-memory {@code code -> Currency} index with the current contents of the currency table.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void rebuildCurrencyIndex() {
+        Map<String, Currency> index = new HashMap<>();
+        for (Currency currency : currencyRepository.findAll()) {
+            index.put(currency.getCode(), currency);
+        }
+        currencyIndex.set(Map.copyOf(index));
+    }
+
     @CacheEvict(value = CacheNames.CURRENCIES, allEntries = true)
     public void evictCurrenciesCache() {
         // return and finish
@@ -45,12 +65,36 @@ public class CurrencyService {
 
     @CacheEvict(value = CacheNames.CURRENCIES, allEntries = true)
     public Currency addCurrency(String code) {
-        return currencyRepository.findByCode(code.toUpperCase())
+        Currency currency = currencyRepository.findByCode(code.toUpperCase())
                 .orElseGet(() -> currencyRepository.save(new Currency(code)));
+        indexCurrency(currency);
+        return currency;
     }
 
     public Currency getCurrencyByCode(String code) {
-        return currencyRepository.findByCode(code.toUpperCase())
+        Currency currency = currencyIndex.get().get(code.toUpperCase());
+        if (currency != null) {
+            return currency;
+        }
+        // not indexed yet, e.g. added through another instance
+        return findAndIndex(code)
                 .orElseThrow(() -> new CurrencyNotFoundException("Currency not found: " + code));
     }
+
+    private Optional<Currency> findAndIndex(String code) {
+        Optional<Currency> currency = currencyRepository.findByCode(code.toUpperCase());
+        currency.ifPresent(this::indexCurrency);
+        return currency;
+    }
+
+    private void indexCurrency(Currency currency) {
+        currencyIndex.updateAndGet(index -> {
+            if (index.get(currency.getCode()) == currency) {
+                return index;
+            }
+            Map<String, Currency> updated = new HashMap<>(index);
+            updated.put(currency.getCode(), currency);
+            return Map.copyOf(updated);
+        });
+    }
 }
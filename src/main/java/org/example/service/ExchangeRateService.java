@@ -1,60 +1,120 @@
 package org.example.service;
 
 import org.example.cache.CacheNames;
+import org.example.cache.TwoLevelCache;
 import org.example.entity.Currency;
 import org.example.entity.ExchangeRate;
+import org.example.entity.ExchangeRateDaily;
+import org.example.entity.LatestExchangeRate;
+import org.example.exception.CurrencyNotFoundException;
 import org.example.exception.ExchangeRateServiceException;
+import org.example.exception.ExchangeRatesNotStoredException;
 import org.example.exception.ExternalApiException;
+import org.example.exception.InvalidRangeException;
+import org.example.model.Conversion;
+import org.example.model.CurrencyOrdinals;
+import org.example.model.RateTable;
+import org.example.model.RateUpdate;
+import org.example.model.RatesUpdatedEvent;
+import org.example.model.RefreshCycleStats;
+import org.example.repository.ExchangeRateDailyRepository;
 import org.example.repository.ExchangeRateRepository;
+import org.example.repository.LatestExchangeRateRepository;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.cache.Cache;
 import org.springframework.cache.CacheManager;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
 
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
-import java.util.concurrent.CountDownLatch;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 
 @Service
 public class ExchangeRateService {
 
     private static final Logger logger = LoggerFactory.getLogger(ExchangeRateService.class);
 
+    private static final int FALLBACK_RESULT_SCALE = 8;
+
     private final ExchangeRateRepository exchangeRateRepository;
+    private final LatestExchangeRateRepository latestExchangeRateRepository;
+    private final ExchangeRateDailyRepository exchangeRateDailyRepository;
     private final CurrencyService currencyService;
     private final ExternalApiService externalApiService;
+    private final CrossRateCalculator crossRateCalculator;
+    private final RefreshPipeline refreshPipeline;
+    private final RateDeltaCalculator rateDeltaCalculator;
+    private final CurrencyOrdinals currencyOrdinals;
+    private final LeaderElectionService leaderElectionService;
+    private final ApplicationEventPublisher eventPublisher;
     private final Cache exchangeRateCache;
+    // only codes the rate tables quote reach this, so it is bounded by the currency ordinal registry
+    private final Map<String, Integer> resultScales = new ConcurrentHashMap<>();
 
     public ExchangeRateService(ExchangeRateRepository exchangeRateRepository,
+                               LatestExchangeRateRepository latestExchangeRateRepository,
+                               ExchangeRateDailyRepository exchangeRateDailyRepository,
                                CurrencyService currencyService,
                                ExternalApiService externalApiService,
-                               CacheManager cacheManager) {
+                               CrossRateCalculator crossRateCalculator,
+                               RefreshPipeline refreshPipeline,
+                               RateDeltaCalculator rateDeltaCalculator,
+                               CurrencyOrdinals currencyOrdinals,
+                               LeaderElectionService leaderElectionService,
+                               CacheManager cacheManager,
+                               ApplicationEventPublisher eventPublisher) {
         this.exchangeRateRepository = exchangeRateRepository;
+        this.latestExchangeRateRepository = latestExchangeRateRepository;
+        this.exchangeRateDailyRepository = exchangeRateDailyRepository;
         this.currencyService = currencyService;
         this.externalApiService = externalApiService;
+        this.crossRateCalculator = crossRateCalculator;
+        this.refreshPipeline = refreshPipeline;
+        this.rateDeltaCalculator = rateDeltaCalculator;
+        this.currencyOrdinals = currencyOrdinals;
+        this.leaderElectionService = leaderElectionService;
         this.exchangeRateCache = cacheManager.getCache(CacheNames.EXCHANGE_RATES);
+        this.eventPublisher = eventPublisher;
     }
 
-    public ExchangeRate getExchangeRate(String currencyCode) {
+    public RateTable getExchangeRate(String currencyCode) {
         Currency currency = currencyService.getCurrencyByCode(currencyCode);
 
         try {
-            return exchangeRateCache.get(currencyCode, () -> {
-                ExchangeRate exchangeRate = exchangeRateRepository.findFirstByCurrencyOrderByTimestampDesc(currency);
-                if (exchangeRate != null && !isExchangeRateExpired(exchangeRate)) {
-                    return exchangeRate;
+            return exchangeRateCache.get(currency.getCode(), () -> {
+                LatestExchangeRate latest = latestExchangeRateRepository.findByCurrency(currency);
+                boolean leader = leaderElectionService.isLeader();
+                if (latest != null && (!isExpired(latest.getTimestamp()) || !leader)) {
+                    // replicas without the refresh lease serve what the leader stored, even when it is late
+                    return RateTable.of(currencyOrdinals, latest);
+                } else if (!leader) {
+                    throw new ExchangeRatesNotStoredException("No exchange rate snapshot stored yet for currency: " + currency.getCode());
+                } else if (crossRateCalculator.isEnabled() && !isPivot(currency)) {
+                    RateTable derived = deriveFromPivot(getExchangeRate(crossRateCalculator.getPivotCode()), currency);
+                    exchangeRateRepository.save(new ExchangeRate(currency, derived.toJson(), derived.getTimestamp()));
+                    return derived;
                 } else {
-                    ExchangeRate fetchedExchangeRate = externalApiService.fetchExchangeRate(currency);
-                    exchangeRateRepository.save(fetchedExchangeRate);
-                    return fetchedExchangeRate;
+                    RateTable fetched = externalApiService.fetchExchangeRate(currency);
+                    exchangeRateRepository.save(new ExchangeRate(currency, fetched.toJson(), fetched.getTimestamp()));
+                    return fetched;
                 }
             });
         } catch (Cache.ValueRetrievalException e) {
             Throwable cause = e.getCause();
             if (cause instanceof ExternalApiException) {
                 throw new ExchangeRateServiceException("Failed to fetch exchange rate for currency: " + currencyCode, cause);
+            } else if (cause instanceof ExchangeRatesNotStoredException notStored) {
+                throw notStored;
             } else {
                 throw new ExchangeRateServiceException("Unexpected error while fetching exchange rate for currency: " + currencyCode, cause);
             }
@@ -63,44 +123,228 @@ public class ExchangeRateService {
         }
     }
 
-    private boolean isExchangeRateExpired(ExchangeRate exchangeRate) {
-        return exchangeRate.getTimestamp().isBefore(LocalDateTime.now().minusHours(1));
+    /**
+     * Resolves the rate tables of several bases in one pass: cache hits are served directly, the
+     * remaining bases are read from the database with a single query, and only bases without a
+     * fresh stored snapshot fall back to {@link #getExchangeRate(String)}.
+     *
+     * @return rate tables keyed by normalized currency code, in request order without duplicates
+     */
+    public Map<String, RateTable> getExchangeRates(Collection<String> currencyCodes) {
+        Map<String, RateTable> rateTables = new LinkedHashMap<>();
+        Map<String, Currency> misses = new LinkedHashMap<>();
+        for (String currencyCode : currencyCodes) {
+            Currency currency = currencyService.getCurrencyByCode(currencyCode);
+            if (rateTables.containsKey(currency.getCode())) {
+                continue;
+            }
+            RateTable cached = exchangeRateCache.get(currency.getCode(), RateTable.class);
+            rateTables.put(currency.getCode(), cached);
+            if (cached == null) {
+                misses.put(currency.getCode(), currency);
+            }
+        }
+        if (misses.isEmpty()) {
+            return rateTables;
+        }
+
+        for (LatestExchangeRate latest : latestExchangeRateRepository.findByCurrencyIn(misses.values())) {
+            if (!isExpired(latest.getTimestamp())) {
+                RateTable rateTable = RateTable.of(currencyOrdinals, latest);
+                exchangeRateCache.putIfAbsent(rateTable.getBaseCode(), rateTable);
+                rateTables.put(rateTable.getBaseCode(), rateTable);
+                misses.remove(rateTable.getBaseCode());
+            }
+        }
+        for (String currencyCode : misses.keySet()) {
+            rateTables.put(currencyCode, getExchangeRate(currencyCode));
+        }
+        return rateTables;
+    }
+
+    /**
+     * Converts {@code amount} of {@code fromCode} into {@code toCode} using the cached rate table of {@code fromCode}.
+     * On a cache hit this is an index lookup and an array read; a miss loads the whole table through the cache's
+     * single-flight loader, so every later conversion from the same base is served from memory.
+     */
+    public Conversion convert(String fromCode, String toCode, BigDecimal amount) {
+        RateTable rateTable = getExchangeRate(fromCode);
+        String quoteCode = toCode.toUpperCase();
+        double rate = rateTable.getRate(quoteCode);
+        if (Double.isNaN(rate)) {
+            throw new CurrencyNotFoundException("Exchange rate not available: " + rateTable.getBaseCode() + " -> " + quoteCode);
+        }
+        BigDecimal result = amount.multiply(BigDecimal.valueOf(rate)).setScale(resultScale(quoteCode), RoundingMode.HALF_EVEN);
+        return new Conversion(rateTable.getBaseCode(), quoteCode, amount, rate, result, rateTable.getTimestamp());
     }
 
-    public void updateExchangeRates() {
-        List<Currency> currencies = currencyService.getAllCurrencies();
-        List<ExchangeRate> exchangeRates = new ArrayList<>();
+    /**
+     * @return the minor-unit digits of {@code currencyCode}, or {@value #FALLBACK_RESULT_SCALE} for currencies
+     *         without ISO 4217 minor units, such as metals and the configured non-ISO codes
+     */
+    private int resultScale(String currencyCode) {
+        return resultScales.computeIfAbsent(currencyCode, code -> {
+            try {
+                int digits = java.util.Currency.getInstance(code).getDefaultFractionDigits();
+                return digits >= 0 ? digits : FALLBACK_RESULT_SCALE;
+            } catch (IllegalArgumentException e) {
+                return FALLBACK_RESULT_SCALE;
+            }
+        });
+    }
+
+    /**
+     * Daily OHLC history of one pair, served from the {@code exchange_rate_daily} rollup rather than raw snapshots.
+     */
+    public List<ExchangeRateDaily> getDailyRates(String baseCode, String quoteCode, LocalDate from, LocalDate to) {
+        if (from.isAfter(to)) {
+            throw new InvalidRangeException("Start date must not be after end date");
+        }
+        Currency base = currencyService.getCurrencyByCode(baseCode);
+        return exchangeRateDailyRepository.findByCurrencyIdAndQuoteCodeAndDayBetweenOrderByDay(
+                base.getId(), quoteCode.toUpperCase(), from, to);
+    }
+
+    private boolean isExpired(LocalDateTime timestamp) {
+        return timestamp.isBefore(LocalDateTime.now().minusHours(1));
+    }
 
-        CountDownLatch latch = new CountDownLatch(currencies.size());
+    private boolean isPivot(Currency currency) {
+        return currency.getCode().equals(crossRateCalculator.getPivotCode());
+    }
+
+    private RateTable deriveFromPivot(RateTable pivotTable, Currency currency) {
+        RateTable derived = crossRateCalculator.derive(pivotTable, currency.getCode());
+        if (derived == null) {
+            throw new ExternalApiException("Pivot currency " + pivotTable.getBaseCode() + " has no rate for: " + currency.getCode());
+        }
+        return derived;
+    }
 
+    public RefreshCycleStats updateExchangeRates() {
+        List<Currency> currencies = currencyService.getAllCurrencies();
+        if (crossRateCalculator.isEnabled()) {
+            return updateExchangeRatesFromPivot(currencies);
+        } else {
+            return updateExchangeRatesPerBase(currencies);
+        }
+    }
+
+    /**
+     * Fetches the pivot table once and derives every other base locally: one upstream call per cycle.
+     */
+    private RefreshCycleStats updateExchangeRatesFromPivot(List<Currency> currencies) {
+        Currency pivot = currencyService.getCurrencyByCode(crossRateCalculator.getPivotCode());
+        List<RateTable> fetched = new ArrayList<>(1);
+        RefreshCycleStats stats = refreshPipeline.run(List.of(pivot), externalApiService::fetchExchangeRate, fetched::addAll);
+        if (fetched.isEmpty()) {
+            logger.warn("Pivot exchange rate for currency {} could not be fetched.", pivot.getCode());
+            return stats;
+        }
+        RateTable pivotTable = fetched.get(0);
+        List<RateUpdate> updates = new ArrayList<>(currencies.size());
+        List<ExchangeRate> exchangeRates = new ArrayList<>();
+        RateUpdate pivotUpdate = publishToCache(pivotTable, updates);
+        exchangeRates.add(retainChanges(new ExchangeRate(pivot, pivotTable.toJson(), pivotTable.getTimestamp()), pivotUpdate));
         for (Currency currency : currencies) {
-            Thread.startVirtualThread(() -> {
-                try {
-                    ExchangeRate exchangeRate = externalApiService.fetchExchangeRate(currency);
-                    exchangeRateCache.put(currency.getCode(), exchangeRate);
-                    synchronized (exchangeRates) {
-                        exchangeRates.add(exchangeRate);
-                    }
-                } catch (ExternalApiException e) {
-                    logger.error("Error fetching exchange rate for currency {}: {}", currency.getCode(), e.getMessage());
-                } catch (Exception e) {
-                    logger.error("Unexpected error fetching exchange rate for currency {}: {}", currency.getCode(), e.getMessage());
-                } finally {
-                    latch.countDown();
-                }
-            });
+            if (isPivot(currency)) {
+                continue;
+            }
+            RateTable derived = crossRateCalculator.derive(pivotTable, currency.getCode());
+            if (derived == null) {
+                logger.warn("Pivot currency {} has no rate for {}, skipping", pivot.getCode(), currency.getCode());
+                continue;
+            }
+            RateUpdate update = publishToCache(derived, updates);
+            exchangeRates.add(retainChanges(new ExchangeRate(currency, derived.toJson(), derived.getTimestamp()), update));
         }
+        eventPublisher.publishEvent(new RatesUpdatedEvent(updates));
+        exchangeRateRepository.saveRefresh(exchangeRates);
+        commitDeltas(updates);
+        return stats;
+    }
 
-        try {
-            latch.await();
-        } catch (InterruptedException e) {
-            Thread.currentThread().interrupt();
+    private RefreshCycleStats updateExchangeRatesPerBase(List<Currency> currencies) {
+        Map<String, Currency> currenciesByCode = new HashMap<>();
+        for (Currency currency : currencies) {
+            currenciesByCode.put(currency.getCode(), currency);
         }
+        List<ExchangeRate> exchangeRates = new ArrayList<>();
+        List<RateUpdate> allUpdates = new ArrayList<>();
+
+        RefreshCycleStats stats = refreshPipeline.run(currencies, externalApiService::fetchExchangeRate, batch -> {
+            List<RateUpdate> updates = new ArrayList<>(batch.size());
+            List<ExchangeRate> batchExchangeRates = new ArrayList<>(batch.size());
+            for (RateTable rateTable : batch) {
+                ExchangeRate exchangeRate = new ExchangeRate(currenciesByCode.get(rateTable.getBaseCode()),
+                        rateTable.toJson(), rateTable.getTimestamp());
+                batchExchangeRates.add(retainChanges(exchangeRate, publishToCache(rateTable, updates)));
+            }
+            eventPublisher.publishEvent(new RatesUpdatedEvent(updates));
+            synchronized (exchangeRates) {
+                exchangeRates.addAll(batchExchangeRates);
+                allUpdates.addAll(updates);
+            }
+        });
 
         if (!exchangeRates.isEmpty()) {
-            exchangeRateRepository.saveAll(exchangeRates);
+            exchangeRateRepository.saveRefresh(exchangeRates);
+            commitDeltas(allUpdates);
         } else {
             logger.warn("No exchange rates were fetched successfully.");
         }
+        return stats;
+    }
+
+    /**
+     * Publishes the latest stored table of every base to this replica's cache and rate stream, for replicas
+     * that did not make the refresh themselves. With a shared cache level only the local level is written:
+     * the leader has already put the tables into the shared level.
+     *
+     * @return number of tables reloaded
+     */
+    public int reloadLatestExchangeRates() {
+        List<Currency> currencies = currencyService.getAllCurrencies();
+        Cache localCache = exchangeRateCache instanceof TwoLevelCache<?> twoLevelCache
+                ? twoLevelCache.getLocalCache()
+                : exchangeRateCache;
+        List<RateUpdate> updates = new ArrayList<>(currencies.size());
+        for (LatestExchangeRate latest : latestExchangeRateRepository.findByCurrencyIn(currencies)) {
+            RateTable rateTable = RateTable.of(currencyOrdinals, latest);
+            localCache.put(rateTable.getBaseCode(), rateTable);
+            updates.add(rateDeltaCalculator.publish(rateTable));
+        }
+        eventPublisher.publishEvent(new RatesUpdatedEvent(updates));
+        return updates.size();
+    }
+
+    private RateUpdate publishToCache(RateTable rateTable, List<RateUpdate> updates) {
+        exchangeRateCache.put(rateTable.getBaseCode(), rateTable);
+        RateUpdate update = rateDeltaCalculator.diff(rateTable);
+        updates.add(update);
+        return update;
+    }
+
+    /**
+     * Advances the published view only after the snapshots are stored, so deltas of a failed save are
+     * computed, and persisted, again by the next cycle.
+     */
+    private void commitDeltas(List<RateUpdate> updates) {
+        for (RateUpdate update : updates) {
+            rateDeltaCalculator.commit(update);
+        }
+    }
+
+    /**
+     * With {@code exchange.rates.delta.persist.changed.only}, narrows the snapshot to be stored down to the
+     * pairs in {@code update} unless {@link RateDeltaCalculator#persistsChangesOnly} asks for a full one; the
+     * latest-rate projection merges such partial snapshots into the full table.
+     */
+    private ExchangeRate retainChanges(ExchangeRate exchangeRate, RateUpdate update) {
+        if (rateDeltaCalculator.persistsChangesOnly(update)) {
+            exchangeRate.setRates(update.ratesToJson());
+            exchangeRate.setPartial(true);
+        }
+        return exchangeRate;
     }
 }
@@ -0,0 +1,99 @@
+package org.example.service;
+
+import jakarta.annotation.PreDestroy;
+import org.example.model.LeaseAcquiredEvent;
+import org.example.repository.SchedulerLeaseRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.lang.management.ManagementFactory;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Elects one replica to run the scheduled jobs that must not run everywhere, using a lease row in
+ * {@code scheduler_lease}. The lease is taken and renewed against the database clock; locally it is only
+ * trusted until its duration has passed since the renewal was attempted, so a replica that cannot reach
+ * the database steps down before another one can take over. Taking the lease publishes a
+ * {@link LeaseAcquiredEvent}, so the new leader can catch up on work its predecessor may have left undone.
+ */
+@Service
+public class LeaderElectionService {
+
+    private static final Logger logger = LoggerFactory.getLogger(LeaderElectionService.class);
+
+    static final String LEASE_NAME = "exchange-rate-refresh";
+
+    private final SchedulerLeaseRepository schedulerLeaseRepository;
+    private final boolean enabled;
+    private final long leaseDurationMillis;
+    private final String holder;
+    private final ApplicationEventPublisher eventPublisher;
+    private volatile long leaseValidUntilNanos;
+
+    public LeaderElectionService(SchedulerLeaseRepository schedulerLeaseRepository,
+                                 @Value("${scheduler.leader.election.enabled}") boolean enabled,
+                                 @Value("${scheduler.leader.lease.duration}") long leaseDurationMillis,
+                                 ApplicationEventPublisher eventPublisher) {
+        this.schedulerLeaseRepository = schedulerLeaseRepository;
+        this.enabled = enabled;
+        this.leaseDurationMillis = leaseDurationMillis;
+        this.holder = ManagementFactory.getRuntimeMXBean().getName() + "/" + UUID.randomUUID();
+        this.eventPublisher = eventPublisher;
+        this.leaseValidUntilNanos = System.nanoTime();
+    }
+
+    @Scheduled(fixedRateString = "${scheduler.leader.lease.renew.rate}")
+    public void renewLease() {
+        if (!enabled) {
+            return;
+        }
+        long attemptedAt = System.nanoTime();
+        boolean wasLeader = isLeader();
+        String acquiredBy;
+        try {
+            acquiredBy = schedulerLeaseRepository.tryAcquire(LEASE_NAME, holder, leaseDurationMillis);
+        } catch (RuntimeException e) {
+            // keep the current lease until it runs out locally; the next renewal may succeed in time
+            logger.warn("Failed to renew scheduler lease {}: {}", LEASE_NAME, e.getMessage());
+            return;
+        }
+        boolean leader = holder.equals(acquiredBy);
+        leaseValidUntilNanos = leader ? attemptedAt + TimeUnit.MILLISECONDS.toNanos(leaseDurationMillis) : attemptedAt;
+        if (leader && !wasLeader) {
+            logger.info("Acquired scheduler lease {} as {}", LEASE_NAME, holder);
+            eventPublisher.publishEvent(new LeaseAcquiredEvent(LEASE_NAME, holder));
+        } else if (!leader && wasLeader) {
+            logger.warn("Lost scheduler lease {} held as {}", LEASE_NAME, holder);
+        }
+    }
+
+    /**
+     * @return true when this replica holds the lease, or when leader election is disabled
+     */
+    public boolean isLeader() {
+        return !enabled || leaseValidUntilNanos - System.nanoTime() > 0;
+    }
+
+    public String getHolder() {
+        return holder;
+    }
+
+    @PreDestroy
+    public void releaseLease() {
+        if (!enabled || !isLeader()) {
+            return;
+        }
+        leaseValidUntilNanos = System.nanoTime();
+        try {
+            schedulerLeaseRepository.release(LEASE_NAME, holder);
+            logger.info("Released scheduler lease {}", LEASE_NAME);
+        } catch (RuntimeException e) {
+            logger.warn("Failed to release scheduler lease {}, it expires on its own: {}", LEASE_NAME, e.getMessage());
+        }
+    }
+}
@@ -0,0 +1,86 @@
+package org.example.service;
+
+import org.example.repository.ExchangeRateDailyRepository;
+import org.example.repository.ExchangeRateRepository;
+import org.example.repository.RateQuoteRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDate;
+
+/**
+ * Keeps the monthly partitions of {@code exchange_rate} ahead of the clock, rolls recent snapshots
+ * up into {@code exchange_rate_daily} and drops (or archives) partitions past the retention period.
+ */
+@Service
+public class PartitionMaintenanceService {
+
+    private static final Logger logger = LoggerFactory.getLogger(PartitionMaintenanceService.class);
+
+    private final ExchangeRateRepository exchangeRateRepository;
+    private final ExchangeRateDailyRepository exchangeRateDailyRepository;
+    private final RateQuoteRepository rateQuoteRepository;
+    private final int premadeMonths;
+    private final int rollupLookbackDays;
+    private final int retentionMonths;
+    private final boolean archive;
+    private final int quoteRetentionMonths;
+
+    public PartitionMaintenanceService(ExchangeRateRepository exchangeRateRepository,
+                                       ExchangeRateDailyRepository exchangeRateDailyRepository,
+                                       RateQuoteRepository rateQuoteRepository,
+                                       @Value("${exchange.rates.partition.premade.months}") int premadeMonths,
+                                       @Value("${exchange.rates.rollup.lookback.days}") int rollupLookbackDays,
+                                       @Value("${exchange.rates.retention.months}") int retentionMonths,
+                                       @Value("${exchange.rates.retention.archive}") boolean archive,
+                                       @Value("${exchange.rates.quotes.retention.months}") int quoteRetentionMonths) {
+        this.exchangeRateRepository = exchangeRateRepository;
+        this.exchangeRateDailyRepository = exchangeRateDailyRepository;
+        this.rateQuoteRepository = rateQuoteRepository;
+        this.premadeMonths = premadeMonths;
+        this.rollupLookbackDays = rollupLookbackDays;
+        this.retentionMonths = retentionMonths;
+        this.archive = archive;
+        this.quoteRetentionMonths = quoteRetentionMonths;
+    }
+
+    public void maintain(LocalDate today) {
+        createPartitions(today);
+        rollUp(today);
+        applyRetention(today);
+    }
+
+    void createPartitions(LocalDate today) {
+        LocalDate month = today.withDayOfMonth(1);
+        for (int i = 0; i <= premadeMonths; i++) {
+            String created = exchangeRateRepository.createPartition(month.plusMonths(i));
+            if (created != null) {
+                logger.info("Created exchange rate partition {}", created);
+            }
+        }
+    }
+
+    void rollUp(LocalDate today) {
+        int rows = exchangeRateDailyRepository.rollUp(today.minusDays(rollupLookbackDays), today.plusDays(1));
+        logger.info("Rolled up {} daily exchange rate rows", rows);
+    }
+
+    void applyRetention(LocalDate today) {
+        if (retentionMonths > 0) {
+            LocalDate cutoff = today.withDayOfMonth(1).minusMonths(retentionMonths);
+            int removed = exchangeRateRepository.dropPartitionsBefore(cutoff, archive);
+            if (removed > 0) {
+                logger.info("{} {} exchange rate partitions older than {}", archive ? "Archived" : "Dropped", removed, cutoff);
+            }
+        }
+        if (quoteRetentionMonths > 0) {
+            LocalDate cutoff = today.withDayOfMonth(1).minusMonths(quoteRetentionMonths);
+            int removed = rateQuoteRepository.dropPartitionsBefore(cutoff);
+            if (removed > 0) {
+                logger.info("Dropped {} rate quote partitions older than {}", removed, cutoff);
+            }
+        }
+    }
+}
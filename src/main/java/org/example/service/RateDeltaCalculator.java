@@ -0,0 +1,141 @@
+package org.example.service;
+
+import org.example.model.CurrencyOrdinals;
+import org.example.model.RateTable;
+import org.example.model.RateUpdate;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDate;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Computes per-pair deltas between rate tables. A quote counts as changed when it moved by more than
+ * {@code exchange.rates.delta.threshold} relative to the previous rate (0 reports every change).
+ * <p>
+ * {@link #diff(RateTable)} compares against the rates last committed for the base rather than the previous
+ * snapshot, so moves below the threshold cannot accumulate unreported.
+ */
+@Component
+public class RateDeltaCalculator {
+
+    private final CurrencyOrdinals currencyOrdinals;
+    private final double threshold;
+    private final boolean persistChangedOnly;
+    private final Map<String, double[]> published = new ConcurrentHashMap<>();
+    private final Map<String, LocalDate> fullSnapshotDays = new ConcurrentHashMap<>();
+
+    public RateDeltaCalculator(CurrencyOrdinals currencyOrdinals,
+                               @Value("${exchange.rates.delta.threshold}") double threshold,
+                               @Value("${exchange.rates.delta.persist.changed.only}") boolean persistChangedOnly) {
+        if (threshold < 0) {
+            throw new IllegalArgumentException("Delta threshold must not be negative: " + threshold);
+        }
+        this.currencyOrdinals = currencyOrdinals;
+        this.threshold = threshold;
+        this.persistChangedOnly = persistChangedOnly;
+    }
+
+    public boolean isPersistChangedOnly() {
+        return persistChangedOnly;
+    }
+
+    /**
+     * Whether the snapshot behind {@code update} may be stored as just its changed pairs. Even with
+     * {@code exchange.rates.delta.persist.changed.only} the first snapshot of a base on each day is stored in
+     * full, so every daily rollup and every monthly partition of the history sees all pairs, including those
+     * that have not moved since a partition that retention has since dropped.
+     */
+    public boolean persistsChangesOnly(RateUpdate update) {
+        return persistChangedOnly && !update.full()
+                && update.timestamp().toLocalDate().equals(fullSnapshotDays.get(update.baseCode()));
+    }
+
+    public RateUpdate delta(RateTable previous, RateTable current) {
+        if (previous == null) {
+            return RateUpdate.snapshot(current);
+        }
+        Map<String, Double> changes = new LinkedHashMap<>();
+        for (int i = 0; i < current.length(); i++) {
+            double rate = current.getRate(i);
+            if (isSignificant(previous.getRate(i), rate)) {
+                changes.put(current.quoteCode(i), rate);
+            }
+        }
+        return new RateUpdate(current.getBaseCode(), current.getTimestamp(), changes, false);
+    }
+
+    /**
+     * @return the significant changes of {@code current} since the last committed rates of its base, or a full
+     *         snapshot when nothing has been committed for the base yet; nothing is recorded until
+     *         {@link #commit(RateUpdate)}
+     */
+    public RateUpdate diff(RateTable current) {
+        double[] view = published.get(current.getBaseCode());
+        if (view == null) {
+            return RateUpdate.snapshot(current);
+        }
+        Map<String, Double> changes = new LinkedHashMap<>();
+        for (int i = 0; i < current.length(); i++) {
+            double rate = current.getRate(i);
+            if (isSignificant(i < view.length ? view[i] : Double.NaN, rate)) {
+                changes.put(current.quoteCode(i), rate);
+            }
+        }
+        return new RateUpdate(current.getBaseCode(), current.getTimestamp(), changes, false);
+    }
+
+    /**
+     * Records the rates of {@code update} as published and stored, so later diffs of its base are taken against
+     * them. Refreshes commit only once their snapshots are stored: with changed-only persistence a delta that
+     * was never stored must be reported again.
+     */
+    public void commit(RateUpdate update) {
+        if (!persistsChangesOnly(update)) {
+            fullSnapshotDays.put(update.baseCode(), update.timestamp().toLocalDate());
+        }
+        advance(update);
+    }
+
+    /**
+     * {@link #diff(RateTable)} and an update of the published view in one step, for tables that are not stored.
+     */
+    public RateUpdate publish(RateTable current) {
+        RateUpdate update = diff(current);
+        advance(update);
+        return update;
+    }
+
+    private void advance(RateUpdate update) {
+        published.compute(update.baseCode(), (baseCode, view) -> {
+            int length = currencyOrdinals.size();
+            if (view == null || update.full()) {
+                view = RateTable.newRates(length);
+            } else if (view.length < length) {
+                int oldLength = view.length;
+                view = Arrays.copyOf(view, length);
+                Arrays.fill(view, oldLength, length, Double.NaN);
+            }
+            for (Map.Entry<String, Double> rate : update.rates().entrySet()) {
+                int ordinal = currencyOrdinals.ordinalOf(rate.getKey());
+                if (ordinal >= 0) {
+                    view[ordinal] = rate.getValue();
+                }
+            }
+            return view;
+        });
+    }
+
+    private boolean isSignificant(double previous, double rate) {
+        if (Double.isNaN(rate)) {
+            return false;
+        }
+        if (Double.isNaN(previous)) {
+            return true;
+        }
+        return threshold == 0 ? Double.compare(previous, rate) != 0 : Math.abs(rate - previous) > threshold * Math.abs(previous);
+    }
+}
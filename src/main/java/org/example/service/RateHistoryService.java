@@ -0,0 +1,119 @@
+package org.example.service;
+
+import org.example.entity.Currency;
+import org.example.entity.ExchangeRate;
+import org.example.exception.CurrencyNotFoundException;
+import org.example.exception.InvalidRangeException;
+import org.example.model.CurrencyOrdinals;
+import org.example.model.QuoteRate;
+import org.example.model.RatePoint;
+import org.example.model.RateTable;
+import org.example.model.RateUpdate;
+import org.example.repository.ExchangeRateRepository;
+import org.example.repository.RateQuoteRepository;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.math.BigDecimal;
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Point-in-time and range lookups over stored history. Pair queries are index seeks on {@code rate_quote};
+ * full tables at a point in time read the snapshot's JSON while it is retained and complete, and are rebuilt
+ * from {@code rate_quote} otherwise.
+ */
+@Service
+public class RateHistoryService {
+
+    private final ExchangeRateRepository exchangeRateRepository;
+    private final RateQuoteRepository rateQuoteRepository;
+    private final CurrencyService currencyService;
+    private final ExchangeRateService exchangeRateService;
+    private final RateDeltaCalculator rateDeltaCalculator;
+    private final CurrencyOrdinals currencyOrdinals;
+    private final Duration maxRange;
+
+    public RateHistoryService(ExchangeRateRepository exchangeRateRepository,
+                              RateQuoteRepository rateQuoteRepository,
+                              CurrencyService currencyService,
+                              ExchangeRateService exchangeRateService,
+                              RateDeltaCalculator rateDeltaCalculator,
+                              CurrencyOrdinals currencyOrdinals,
+                              @Value("${exchange.rates.history.max.range.days}") int maxRangeDays) {
+        this.exchangeRateRepository = exchangeRateRepository;
+        this.rateQuoteRepository = rateQuoteRepository;
+        this.currencyService = currencyService;
+        this.exchangeRateService = exchangeRateService;
+        this.rateDeltaCalculator = rateDeltaCalculator;
+        this.currencyOrdinals = currencyOrdinals;
+        this.maxRange = Duration.ofDays(maxRangeDays);
+    }
+
+    public RateTable getExchangeRateAt(String currencyCode, LocalDateTime at) {
+        Currency currency = currencyService.getCurrencyByCode(currencyCode);
+        RateTable rateTable = findExchangeRateAt(currency, at);
+        if (rateTable == null) {
+            throw new CurrencyNotFoundException("No exchange rates stored for " + currency.getCode() + " at " + at);
+        }
+        return rateTable;
+    }
+
+    /**
+     * Pairs of {@code currencyCode} whose current rate differs significantly from the one stored at {@code since};
+     * every current pair when nothing was stored yet.
+     */
+    public RateUpdate getChangesSince(String currencyCode, LocalDateTime since) {
+        Currency currency = currencyService.getCurrencyByCode(currencyCode);
+        RateTable current = exchangeRateService.getExchangeRate(currency.getCode());
+        return rateDeltaCalculator.delta(findExchangeRateAt(currency, since), current);
+    }
+
+    private RateTable findExchangeRateAt(Currency currency, LocalDateTime at) {
+        ExchangeRate exchangeRate = exchangeRateRepository.findFirstByCurrencyAndTimestampLessThanEqualOrderByTimestampDesc(currency, at);
+        if (exchangeRate != null && !exchangeRate.isPartial()) {
+            return RateTable.of(currencyOrdinals, exchangeRate);
+        }
+        List<Object[]> rows = rateQuoteRepository.findLatestQuotesAt(currency.getId(), at);
+        if (rows.isEmpty()) {
+            return null;
+        }
+        List<QuoteRate> quotes = new ArrayList<>(rows.size());
+        LocalDateTime timestamp = null;
+        for (Object[] row : rows) {
+            quotes.add(new QuoteRate((String) row[0], (BigDecimal) row[1]));
+            LocalDateTime quotedAt = row[2] instanceof Timestamp sqlTimestamp ? sqlTimestamp.toLocalDateTime() : (LocalDateTime) row[2];
+            if (timestamp == null || quotedAt.isAfter(timestamp)) {
+                timestamp = quotedAt;
+            }
+        }
+        return RateTable.fromQuotes(currencyOrdinals, currency.getCode(), quotes, timestamp);
+    }
+
+    public RatePoint getRateAt(String baseCode, String quoteCode, LocalDateTime at) {
+        Currency base = currencyService.getCurrencyByCode(baseCode);
+        Currency quote = currencyService.getCurrencyByCode(quoteCode);
+        RatePoint point = rateQuoteRepository.findFirstByBaseCurrencyIdAndQuoteCurrencyIdAndTimestampLessThanEqualOrderByTimestampDesc(
+                base.getId(), quote.getId(), at);
+        if (point == null) {
+            throw new CurrencyNotFoundException("No exchange rate stored for " + base.getCode() + " -> " + quote.getCode() + " at " + at);
+        }
+        return point;
+    }
+
+    public List<RatePoint> getRateHistory(String baseCode, String quoteCode, LocalDateTime from, LocalDateTime to) {
+        if (from.isAfter(to)) {
+            throw new InvalidRangeException("Start time must not be after end time");
+        }
+        if (Duration.between(from, to).compareTo(maxRange) > 0) {
+            throw new InvalidRangeException("Time range must not exceed " + maxRange.toDays() + " days");
+        }
+        Currency base = currencyService.getCurrencyByCode(baseCode);
+        Currency quote = currencyService.getCurrencyByCode(quoteCode);
+        return rateQuoteRepository.findByBaseCurrencyIdAndQuoteCurrencyIdAndTimestampBetweenOrderByTimestamp(
+                base.getId(), quote.getId(), from, to);
+    }
+}
@@ -0,0 +1,212 @@
+package org.example.service;
+
+import jakarta.annotation.PreDestroy;
+import org.example.model.RateTable;
+import org.example.model.RateUpdate;
+import org.example.model.RatesUpdatedEvent;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Service;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.util.Collection;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+/**
+ * Pushes rate updates to Server-Sent Events subscribers. The refresh cycle only offers each published batch
+ * to a bounded fan-out queue; a dispatcher copies it into every subscriber's own bounded queue, and each
+ * subscriber is drained by its own virtual thread, so a slow client only ever delays itself. A subscriber
+ * whose queue overflows is disconnected and receives fresh snapshots when it reconnects.
+ * <p>
+ * A subscriber is registered before its snapshots are read, so no delta published in between is missed;
+ * the deltas it collects meanwhile are sent after the snapshots.
+ */
+@Service
+public class RateStreamService {
+
+    private static final Logger logger = LoggerFactory.getLogger(RateStreamService.class);
+
+    private final List<Subscriber> subscribers = new CopyOnWriteArrayList<>();
+    private final AtomicInteger subscriberCount = new AtomicInteger();
+    private final BlockingQueue<List<RateUpdate>> fanOut;
+    private final AtomicLong eventIds = new AtomicLong();
+    private final AtomicLong droppedBatches = new AtomicLong();
+    private final AtomicLong overflowedSubscribers = new AtomicLong();
+    private final int subscriberBufferSize;
+    private final int maxSubscribers;
+    private final long timeoutMillis;
+    private final long heartbeatMillis;
+    private final Thread dispatcher;
+
+    public RateStreamService(@Value("${exchange.rates.stream.fanout.buffer.size}") int fanOutBufferSize,
+                             @Value("${exchange.rates.stream.subscriber.buffer.size}") int subscriberBufferSize,
+                             @Value("${exchange.rates.stream.max.subscribers}") int maxSubscribers,
+                             @Value("${exchange.rates.stream.timeout}") long timeoutMillis,
+                             @Value("${exchange.rates.stream.heartbeat}") long heartbeatMillis) {
+        this.fanOut = new ArrayBlockingQueue<>(fanOutBufferSize);
+        this.subscriberBufferSize = subscriberBufferSize;
+        this.maxSubscribers = maxSubscribers;
+        this.timeoutMillis = timeoutMillis;
+        this.heartbeatMillis = heartbeatMillis;
+        this.dispatcher = Thread.ofVirtual().name("rate-stream-dispatcher").start(this::dispatch);
+    }
+
+    /**
+     * @param bases     bases to receive deltas for; empty for all
+     * @param snapshots reads the current tables of the subscribed bases once the subscriber receives deltas;
+     *                  they are sent before any delta, and an exception unsubscribes and is rethrown
+     * @return the emitter, or null when the subscriber limit is reached
+     */
+    public SseEmitter subscribe(Set<String> bases, Supplier<Collection<RateTable>> snapshots) {
+        if (subscriberCount.incrementAndGet() > maxSubscribers) {
+            subscriberCount.decrementAndGet();
+            return null;
+        }
+        SseEmitter emitter = newEmitter(timeoutMillis);
+        Subscriber subscriber = new Subscriber(emitter, bases, subscriberBufferSize);
+        emitter.onCompletion(subscriber::close);
+        emitter.onTimeout(subscriber::close);
+        emitter.onError(e -> subscriber.close());
+        subscribers.add(subscriber);
+        try {
+            subscriber.snapshots = List.copyOf(snapshots.get());
+        } catch (RuntimeException e) {
+            subscriber.close();
+            throw e;
+        }
+        subscriber.drainer = Thread.ofVirtual().name("rate-stream-subscriber").start(subscriber::drain);
+        return emitter;
+    }
+
+    @EventListener
+    public void onRatesUpdated(RatesUpdatedEvent event) {
+        if (event.updates().isEmpty() || subscribers.isEmpty()) {
+            return;
+        }
+        if (!fanOut.offer(event.updates())) {
+            droppedBatches.incrementAndGet();
+            logger.warn("Rate stream fan-out buffer is full, dropping {} updates", event.updates().size());
+        }
+    }
+
+    public int getSubscriberCount() {
+        return subscriberCount.get();
+    }
+
+    public long getDroppedBatchCount() {
+        return droppedBatches.get();
+    }
+
+    public long getOverflowedSubscriberCount() {
+        return overflowedSubscribers.get();
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        dispatcher.interrupt();
+        for (Subscriber subscriber : subscribers) {
+            subscriber.close();
+        }
+    }
+
+    protected SseEmitter newEmitter(long timeoutMillis) {
+        return new SseEmitter(timeoutMillis);
+    }
+
+    private void dispatch() {
+        try {
+            while (!Thread.currentThread().isInterrupted()) {
+                List<RateUpdate> updates = fanOut.take();
+                for (Subscriber subscriber : subscribers) {
+                    subscriber.enqueue(updates);
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private final class Subscriber {
+
+        private final SseEmitter emitter;
+        private final Set<String> bases;
+        private final BlockingQueue<RateUpdate> queue;
+        private final AtomicBoolean closed = new AtomicBoolean();
+        private volatile List<RateTable> snapshots = List.of();
+        private volatile Thread drainer;
+
+        Subscriber(SseEmitter emitter, Set<String> bases, int bufferSize) {
+            this.emitter = emitter;
+            this.bases = bases;
+            this.queue = new ArrayBlockingQueue<>(bufferSize);
+        }
+
+        void enqueue(List<RateUpdate> updates) {
+            for (RateUpdate update : updates) {
+                if ((!bases.isEmpty() && !bases.contains(update.baseCode())) || update.rates().isEmpty()) {
+                    continue;
+                }
+                if (!queue.offer(update)) {
+                    overflowedSubscribers.incrementAndGet();
+                    logger.info("Rate stream subscriber fell {} events behind, disconnecting", queue.size());
+                    close();
+                    return;
+                }
+            }
+        }
+
+        void drain() {
+            try {
+                for (RateTable snapshot : snapshots) {
+                    send(RateUpdate.snapshot(snapshot));
+                }
+                while (!closed.get()) {
+                    RateUpdate update = queue.poll(heartbeatMillis, TimeUnit.MILLISECONDS);
+                    if (update == null) {
+                        emitter.send(SseEmitter.event().comment("heartbeat"));
+                    } else {
+                        send(update);
+                    }
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            } catch (IOException | IllegalStateException e) {
+                logger.debug("Rate stream subscriber disconnected: {}", e.getMessage());
+            } finally {
+                close();
+            }
+        }
+
+        private void send(RateUpdate update) throws IOException {
+            emitter.send(SseEmitter.event()
+                    .id(Long.toString(eventIds.incrementAndGet()))
+                    .name(update.full() ? "snapshot" : "delta")
+                    .data(update, MediaType.APPLICATION_JSON));
+        }
+
+        void close() {
+            if (closed.compareAndSet(false, true)) {
+                subscribers.remove(this);
+                subscriberCount.decrementAndGet();
+                Thread thread = drainer;
+                if (thread != null && thread != Thread.currentThread()) {
+                    thread.interrupt();
+                }
+                emitter.complete();
+            }
+        }
+    }
+}
@@ -0,0 +1,131 @@
+package org.example.service;
+
+import jakarta.annotation.PreDestroy;
+import org.postgresql.PGConnection;
+import org.postgresql.PGNotification;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.SQLException;
+import java.sql.Statement;
+
+/**
+ * Keeps replicas that do not hold the refresh lease in step with the one that does. The leader's refresh
+ * sends a notification on {@value #CHANNEL} in the transaction that stores its snapshots
+ * ({@link org.example.repository.ExchangeRateRepository#saveRefresh}); a virtual thread LISTENs on its own
+ * connection, outside the pool, and reloads the latest rates into the cache. Notifications sent while the
+ * connection is down are lost, so the rates are also reloaded after every reconnect.
+ */
+@Service
+public class RatesRefreshedListener {
+
+    private static final Logger logger = LoggerFactory.getLogger(RatesRefreshedListener.class);
+
+    static final String CHANNEL = "exchange_rates_refreshed";
+
+    private final ExchangeRateService exchangeRateService;
+    private final LeaderElectionService leaderElectionService;
+    private final String url;
+    private final String username;
+    private final String password;
+    private final int pollTimeoutMillis;
+    private final long reconnectDelayMillis;
+    private final Thread listener;
+    private volatile boolean running = true;
+    private volatile boolean listening;
+
+    public RatesRefreshedListener(ExchangeRateService exchangeRateService,
+                                  LeaderElectionService leaderElectionService,
+                                  @Value("${spring.datasource.url}") String url,
+                                  @Value("${spring.datasource.username}") String username,
+                                  @Value("${spring.datasource.password}") String password,
+                                  @Value("${exchange.rates.refresh.listen.enabled}") boolean enabled,
+                                  @Value("${exchange.rates.refresh.listen.poll.timeout}") int pollTimeoutMillis,
+                                  @Value("${exchange.rates.refresh.listen.reconnect.delay}") long reconnectDelayMillis) {
+        this.exchangeRateService = exchangeRateService;
+        this.leaderElectionService = leaderElectionService;
+        this.url = url;
+        this.username = username;
+        this.password = password;
+        this.pollTimeoutMillis = pollTimeoutMillis;
+        this.reconnectDelayMillis = reconnectDelayMillis;
+        this.listener = enabled ? Thread.ofVirtual().name("rates-refreshed-listener").start(this::listen) : null;
+    }
+
+    /**
+     * Reloads the latest rates unless this replica made the refresh itself.
+     *
+     * @return whether the rates were reloaded
+     */
+    public boolean onRatesRefreshed() {
+        if (leaderElectionService.isLeader()) {
+            return false;
+        }
+        try {
+            int reloaded = exchangeRateService.reloadLatestExchangeRates();
+            logger.info("Reloaded {} exchange rate tables refreshed by another replica", reloaded);
+            return true;
+        } catch (RuntimeException e) {
+            logger.error("Failed to reload refreshed exchange rates", e);
+            return false;
+        }
+    }
+
+    /**
+     * @return whether the notification connection is currently LISTENing
+     */
+    public boolean isListening() {
+        return listening;
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        running = false;
+        listening = false;
+        if (listener != null) {
+            listener.interrupt();
+        }
+    }
+
+    private void listen() {
+        boolean reconnected = false;
+        while (running) {
+            try (Connection connection = DriverManager.getConnection(url, username, password)) {
+                try (Statement statement = connection.createStatement()) {
+                    statement.execute("LISTEN " + CHANNEL);
+                }
+                listening = true;
+                logger.info("Listening for exchange rate refreshes on channel {}", CHANNEL);
+                if (reconnected) {
+                    onRatesRefreshed();
+                }
+                reconnected = true;
+                PGConnection pgConnection = connection.unwrap(PGConnection.class);
+                while (running) {
+                    PGNotification[] notifications = pgConnection.getNotifications(pollTimeoutMillis);
+                    if (notifications != null && notifications.length > 0) {
+                        onRatesRefreshed();
+                    } else if (!connection.isValid(pollTimeoutMillis / 1000 + 1)) {
+                        throw new SQLException("Notification connection is no longer valid");
+                    }
+                }
+            } catch (SQLException e) {
+                listening = false;
+                if (!running) {
+                    return;
+                }
+                logger.warn("Exchange rate refresh notifications interrupted, reconnecting in {} ms: {}",
+                        reconnectDelayMillis, e.getMessage());
+                try {
+                    Thread.sleep(reconnectDelayMillis);
+                } catch (InterruptedException interrupted) {
+                    return;
+                }
+            }
+        }
+    }
+}
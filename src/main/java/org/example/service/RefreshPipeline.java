@@ -0,0 +1,137 @@
+package org.example.service;
+
+import io.github.resilience4j.ratelimiter.RateLimiter;
+import io.github.resilience4j.ratelimiter.RateLimiterRegistry;
+import org.example.entity.Currency;
+import org.example.exception.ExternalApiException;
+import org.example.model.RefreshCycleStats;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Consumer;
+import java.util.function.Function;
+
+/**
+ * Runs one upstream fetch per currency on virtual threads, with at most
+ * {@code exchange.rates.refresh.max.concurrency} fetches in flight and every fetch gated by the
+ * {@code externalApiRefresh} rate limiter. Results are handed to the publisher in batches of
+ * {@code exchange.rates.refresh.publish.batch.size} as they complete.
+ */
+@Component
+public class RefreshPipeline {
+
+    private static final Logger logger = LoggerFactory.getLogger(RefreshPipeline.class);
+
+    static final String RATE_LIMITER_NAME = "externalApiRefresh";
+
+    private final RateLimiter rateLimiter;
+    private final int maxConcurrency;
+    private final int publishBatchSize;
+
+    public RefreshPipeline(RateLimiterRegistry rateLimiterRegistry,
+                           @Value("${exchange.rates.refresh.max.concurrency}") int maxConcurrency,
+                           @Value("${exchange.rates.refresh.publish.batch.size}") int publishBatchSize) {
+        this.rateLimiter = rateLimiterRegistry.rateLimiter(RATE_LIMITER_NAME);
+        this.maxConcurrency = maxConcurrency;
+        this.publishBatchSize = publishBatchSize;
+    }
+
+    public <T> RefreshCycleStats run(List<Currency> currencies, Function<Currency, T> fetcher, Consumer<List<T>> publisher) {
+        LocalDateTime startedAt = LocalDateTime.now();
+        long start = System.nanoTime();
+        AtomicInteger succeeded = new AtomicInteger();
+        AtomicInteger failed = new AtomicInteger();
+        AtomicInteger throttled = new AtomicInteger();
+        Semaphore permits = new Semaphore(maxConcurrency);
+        Batch<T> batch = new Batch<>(publishBatchSize, publisher);
+
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (Currency currency : currencies) {
+                permits.acquire();
+                executor.execute(() -> {
+                    try {
+                        if (!rateLimiter.acquirePermission()) {
+                            throttled.incrementAndGet();
+                            logger.warn("Rate limit reached, skipping exchange rate refresh for currency {}", currency.getCode());
+                            return;
+                        }
+                        T result = fetcher.apply(currency);
+                        succeeded.incrementAndGet();
+                        batch.add(result);
+                    } catch (ExternalApiException e) {
+                        failed.incrementAndGet();
+                        logger.error("Error fetching exchange rate for currency {}: {}", currency.getCode(), e.getMessage());
+                    } catch (Exception e) {
+                        failed.incrementAndGet();
+                        logger.error("Unexpected error fetching exchange rate for currency {}: {}", currency.getCode(), e.getMessage());
+                    } finally {
+                        permits.release();
+                    }
+                });
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        batch.flush();
+
+        // throttled currencies never reached upstream, so they do not count as attempts
+        int attempted = succeeded.get() + failed.get();
+        return new RefreshCycleStats(startedAt, Duration.ofNanos(System.nanoTime() - start),
+                attempted, succeeded.get(), failed.get(), throttled.get());
+    }
+
+    private static final class Batch<T> {
+        private final int size;
+        private final Consumer<List<T>> publisher;
+        private final ReentrantLock lock = new ReentrantLock();
+        private List<T> pending;
+
+        Batch(int size, Consumer<List<T>> publisher) {
+            this.size = Math.max(1, size);
+            this.publisher = publisher;
+            this.pending = new ArrayList<>(this.size);
+        }
+
+        void add(T result) {
+            List<T> full = null;
+            lock.lock();
+            try {
+                pending.add(result);
+                if (pending.size() >= size) {
+                    full = pending;
+                    pending = new ArrayList<>(size);
+                }
+            } finally {
+                lock.unlock();
+            }
+            if (full != null) {
+                publisher.accept(full);
+            }
+        }
+
+        void flush() {
+            List<T> remaining;
+            lock.lock();
+            try {
+                remaining = pending;
+                pending = new ArrayList<>(size);
+            } finally {
+                lock.unlock();
+            }
+            if (!remaining.isEmpty()) {
+                publisher.accept(remaining);
+            }
+        }
+    }
+}
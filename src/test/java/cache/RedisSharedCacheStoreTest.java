@@ -0,0 +1,147 @@
+package cache;
+
+import com.fasterxml.jackson.databind.node.JsonNodeFactory;
+import org.example.cache.RateTableCodec;
+import org.example.cache.RedisSharedCacheStore;
+import org.example.cache.TtlCache;
+import org.example.cache.TwoLevelCache;
+import org.example.model.CurrencyOrdinals;
+import org.example.model.RateTable;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.redis.connection.RedisStandaloneConfiguration;
+import org.springframework.data.redis.connection.lettuce.LettuceConnectionFactory;
+import org.testcontainers.containers.GenericContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import static org.awaitility.Awaitility.await;
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+/**
+ * Runs the shared cache level against a real Redis. Needs Docker.
+ */
+@Testcontainers(disabledWithoutDocker = true)
+class RedisSharedCacheStoreTest {
+
+    @Container
+    private static final GenericContainer<?> REDIS = new GenericContainer<>("redis:7-alpine").withExposedPorts(6379);
+
+    private static LettuceConnectionFactory connectionFactory;
+
+    private final CurrencyOrdinals currencyOrdinals = CurrencyOrdinals.withIsoCodes(List.of(), 512);
+
+    private RedisSharedCacheStore store;
+
+    @BeforeAll
+    static void connect() {
+        connectionFactory = new LettuceConnectionFactory(new RedisStandaloneConfiguration(REDIS.getHost(), REDIS.getMappedPort(6379)));
+        connectionFactory.afterPropertiesSet();
+    }
+
+    @AfterAll
+    static void disconnect() {
+        connectionFactory.destroy();
+    }
+
+    @BeforeEach
+    void setUp() {
+        store = new RedisSharedCacheStore(connectionFactory);
+        store.deleteByPrefix("");
+    }
+
+    @AfterEach
+    void tearDown() throws Exception {
+        store.close();
+    }
+
+    @Test
+    void testPutGetAndExpiry() {
+        store.put("test:USD", bytes("rates"), Duration.ofMillis(500));
+
+        assertArrayEquals(bytes("rates"), store.get("test:USD"));
+        assertNull(store.get("test:EUR"));
+        await().atMost(Duration.ofSeconds(5)).until(() -> store.get("test:USD") == null);
+    }
+
+    @Test
+    void testDeleteAndDeleteByPrefix() {
+        for (int i = 0; i < 1200; i++) {
+            store.put("test:rates:" + i, bytes("rates"), Duration.ofMinutes(1));
+        }
+        store.put("test:other", bytes("other"), Duration.ofMinutes(1));
+
+        store.delete("test:other");
+        assertNull(store.get("test:other"));
+
+        store.put("test:other", bytes("other"), Duration.ofMinutes(1));
+        store.deleteByPrefix("test:rates:");
+
+        assertNull(store.get("test:rates:0"));
+        assertNull(store.get("test:rates:1199"));
+        assertArrayEquals(bytes("other"), store.get("test:other"));
+    }
+
+    @Test
+    void testPublishedMessagesReachSubscribers() {
+        List<String> received = new CopyOnWriteArrayList<>();
+        store.subscribe("test:changes", message -> received.add(new String(message, StandardCharsets.UTF_8)));
+
+        // the subscription is registered asynchronously, so publish until it is live
+        await().atMost(Duration.ofSeconds(5)).until(() -> {
+            store.publish("test:changes", bytes("USD"));
+            return !received.isEmpty();
+        });
+
+        assertEquals("USD", received.get(0));
+    }
+
+    @Test
+    void testReplicasShareEntriesAndChangesThroughRedis() throws Exception {
+        try (RedisSharedCacheStore otherStore = new RedisSharedCacheStore(connectionFactory)) {
+            TwoLevelCache<RateTable> first = replica(store);
+            TwoLevelCache<RateTable> second = replica(otherStore);
+
+            first.put("USD", usdRates(0.92));
+            RateTable rateTable = second.get("USD", () -> {
+                throw new IllegalStateException("loader must not run");
+            });
+            assertEquals(0.92, rateTable.getRate("EUR"));
+
+            await().atMost(Duration.ofSeconds(5)).until(() -> {
+                first.put("USD", usdRates(0.93));
+                RateTable pushed = second.getLocalCache().get("USD", RateTable.class);
+                return pushed != null && pushed.getRate("EUR") == 0.93;
+            });
+
+            first.evict("USD");
+            await().atMost(Duration.ofSeconds(5)).until(() -> second.getLocalCache().get("USD") == null);
+            assertNull(second.get("USD"));
+        }
+    }
+
+    private TwoLevelCache<RateTable> replica(RedisSharedCacheStore sharedStore) {
+        return new TwoLevelCache<>(new TtlCache("exchangeRates", Duration.ofHours(1)), sharedStore, new RateTableCodec(currencyOrdinals), "test");
+    }
+
+    private RateTable usdRates(double eur) {
+        return RateTable.fromJson(currencyOrdinals, "USD", JsonNodeFactory.instance.objectNode()
+                .put("EUR", eur)
+                .put("JPY", 151.37), LocalDateTime.of(2025, 3, 1, 14, 0));
+    }
+
+    private static byte[] bytes(String value) {
+        return value.getBytes(StandardCharsets.UTF_8);
+    }
+}
@@ -1,14 +1,30 @@
 package cache;
 
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.example.cache.EvictionStrategy;
+import org.example.cache.RateTableWeigher;
 import org.example.cache.TtlCache;
+import org.example.cache.TtlCacheMetrics;
+import org.example.model.CurrencyOrdinals;
+import org.example.model.RateTable;
 import org.junit.jupiter.api.Test;
 import org.springframework.cache.Cache;
 
 import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
 import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 
 class TtlCacheTest {
 
@@ -64,4 +80,190 @@ class TtlCacheTest {
         assertNotNull(cachedValue);
         assertEquals("value1", cachedValue.get());
     }
+
+    @Test
+    void testGetWithCallableLoadsOncePerKeyUnderContention() throws Exception {
+        TtlCache cache = new TtlCache("testCache", Duration.ofSeconds(10));
+        AtomicInteger loaderCalls = new AtomicInteger();
+        CountDownLatch release = new CountDownLatch(1);
+        int callers = 16;
+
+        ExecutorService executor = Executors.newFixedThreadPool(callers);
+        try {
+            List<Future<String>> results = new ArrayList<>();
+            for (int i = 0; i < callers; i++) {
+                results.add(executor.submit(() -> cache.get("key1", () -> {
+                    loaderCalls.incrementAndGet();
+                    release.await();
+                    return "value1";
+                })));
+            }
+            while (cache.getCoalescedLoadCount() < callers - 1) {
+                Thread.sleep(5);
+            }
+            release.countDown();
+
+            for (Future<String> result : results) {
+                assertEquals("value1", result.get());
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+
+        assertEquals(1, loaderCalls.get());
+        assertEquals(1, cache.getLoadCount());
+        assertEquals(callers - 1, cache.getCoalescedLoadCount());
+    }
+
+    @Test
+    void testGetWithCallablePropagatesLoaderFailureAndAllowsRetry() {
+        TtlCache cache = new TtlCache("testCache", Duration.ofSeconds(1));
+
+        assertThrows(Cache.ValueRetrievalException.class, () -> cache.get("key1", () -> {
+            throw new IllegalStateException("boom");
+        }));
+
+        assertEquals("value1", cache.get("key1", () -> "value1"));
+    }
+
+    @Test
+    void testMaximumSizeEvictsLeastRecentlyUsed() {
+        TtlCache cache = TtlCache.builder("testCache", Duration.ofSeconds(10))
+                .maximumSize(2)
+                .evictionStrategy(EvictionStrategy.LRU)
+                .build();
+        cache.put("key1", "value1");
+        cache.put("key2", "value2");
+        cache.get("key1");
+        cache.put("key3", "value3");
+
+        assertNotNull(cache.get("key1"));
+        assertNull(cache.get("key2"));
+        assertNotNull(cache.get("key3"));
+        assertEquals(1, cache.getEvictionCount());
+        assertEquals(2, cache.getWeightedSize());
+    }
+
+    @Test
+    void testTinyLfuKeepsFrequentlyUsedEntries() {
+        TtlCache cache = TtlCache.builder("testCache", Duration.ofSeconds(10))
+                .maximumSize(10)
+                .evictionStrategy(EvictionStrategy.TINY_LFU)
+                .build();
+        for (int i = 0; i < 10; i++) {
+            cache.put("hot" + i, "value");
+        }
+        for (int round = 0; round < 5; round++) {
+            for (int i = 0; i < 10; i++) {
+                cache.get("hot" + i);
+            }
+        }
+        for (int i = 0; i < 100; i++) {
+            cache.put("cold" + i, "value");
+        }
+
+        int hotSurvivors = 0;
+        for (int i = 0; i < 10; i++) {
+            if (cache.get("hot" + i) != null) {
+                hotSurvivors++;
+            }
+        }
+        assertTrue(hotSurvivors >= 8, "expected frequently used keys to survive, kept " + hotSurvivors);
+        assertEquals(10, cache.getWeightedSize());
+    }
+
+    @Test
+    void testMaximumWeightUsesWeigher() {
+        CurrencyOrdinals currencyOrdinals = CurrencyOrdinals.withIsoCodes(List.of(), 512);
+        RateTable exchangeRate = new RateTable(currencyOrdinals, "USD", LocalDateTime.now(), new double[]{0.9, 150.0});
+        RateTableWeigher weigher = new RateTableWeigher();
+        long weight = weigher.weigh("USD", exchangeRate);
+
+        TtlCache cache = TtlCache.builder("testCache", Duration.ofSeconds(10))
+                .maximumWeight(weight * 2, weigher)
+                .build();
+        cache.put("USD", exchangeRate);
+        cache.put("EUR", exchangeRate);
+        cache.put("GBP", exchangeRate);
+
+        assertEquals(weight * 2, cache.getWeightedSize());
+        assertNull(cache.get("USD"));
+
+        cache.evict("EUR");
+        assertEquals(weight, cache.getWeightedSize());
+    }
+
+    @Test
+    void testCleanUpRemovesExpiredEntriesWithoutReads() throws InterruptedException {
+        TtlCache cache = TtlCache.builder("testCache", Duration.ofMillis(50))
+                .maximumSize(10)
+                .build();
+        cache.put("key1", "value1");
+        cache.put("key2", "value2");
+        Thread.sleep(100);
+        cache.put("key3", "value3");
+
+        cache.cleanUp();
+
+        assertEquals(1, cache.getEstimatedSize());
+        assertEquals(1, cache.getWeightedSize());
+        assertNotNull(cache.get("key3"));
+    }
+
+    @Test
+    void testCleanUpKeepsReplacedEntries() throws InterruptedException {
+        TtlCache cache = new TtlCache("testCache", Duration.ofMillis(200));
+        cache.put("key1", "value1");
+        Thread.sleep(120);
+        cache.put("key1", "value2");
+        Thread.sleep(120);
+
+        cache.cleanUp();
+
+        assertEquals("value2", cache.get("key1").get());
+    }
+
+    @Test
+    void testRefreshAheadServesCurrentValueAndReloadsInBackground() throws Exception {
+        TtlCache cache = TtlCache.builder("testCache", Duration.ofMillis(400))
+                .refreshAheadRatio(0.5)
+                .build();
+        assertEquals("value1", cache.get("key1", () -> "value1"));
+        Thread.sleep(250);
+
+        AtomicInteger reloads = new AtomicInteger();
+        String served = cache.get("key1", () -> {
+            reloads.incrementAndGet();
+            return "value2";
+        });
+
+        assertEquals("value1", served);
+        long deadline = System.currentTimeMillis() + 1000;
+        while (!"value2".equals(cache.get("key1").get()) && System.currentTimeMillis() < deadline) {
+            Thread.sleep(5);
+        }
+        assertEquals("value2", cache.get("key1").get());
+        assertEquals(1, reloads.get());
+        assertEquals(1, cache.getRefreshCount());
+    }
+
+    @Test
+    void testMetricsReportHitsMissesAndLoads() {
+        TtlCache cache = new TtlCache("testCache", Duration.ofSeconds(1));
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        new TtlCacheMetrics(cache, List.of()).bindTo(registry);
+
+        cache.get("key1", () -> "value1");
+        cache.get("key1", () -> "value2");
+        cache.get("key2");
+        assertThrows(Cache.ValueRetrievalException.class, () -> cache.get("key3", () -> {
+            throw new IllegalStateException("unavailable");
+        }));
+
+        assertEquals(1, registry.get("cache.gets").tags("cache", "testCache", "result", "hit").functionCounter().count());
+        assertEquals(3, registry.get("cache.gets").tags("cache", "testCache", "result", "miss").functionCounter().count());
+        assertEquals(1, registry.get("cache.loads").functionTimer().count());
+        assertEquals(1, registry.get("cache.load.failures").functionCounter().count());
+        assertEquals(1, registry.get("cache.size").gauge().value());
+    }
 }
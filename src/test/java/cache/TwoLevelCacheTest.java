@@ -0,0 +1,160 @@
+package cache;
+
+import com.fasterxml.jackson.databind.node.JsonNodeFactory;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import org.example.cache.InMemorySharedCacheStore;
+import org.example.cache.RateTableCodec;
+import org.example.cache.SharedCacheStore;
+import org.example.cache.TtlCache;
+import org.example.cache.TwoLevelCache;
+import org.example.model.CurrencyOrdinals;
+import org.example.model.RateTable;
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.function.Consumer;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class TwoLevelCacheTest {
+
+    private final CurrencyOrdinals currencyOrdinals = CurrencyOrdinals.withIsoCodes(List.of(), 512);
+
+    private final InMemorySharedCacheStore sharedStore = new InMemorySharedCacheStore();
+
+    @Test
+    void testRateTableCodecRoundTrip() {
+        RateTable rateTable = usdRates(0.92);
+        RateTableCodec codec = new RateTableCodec(currencyOrdinals);
+
+        byte[] encoded = codec.encode(rateTable);
+        RateTable decoded = codec.decode(encoded);
+
+        assertEquals("USD", decoded.getBaseCode());
+        assertEquals(rateTable.getTimestamp(), decoded.getTimestamp());
+        assertEquals(0.92, decoded.getRate("EUR"));
+        assertEquals(151.37, decoded.getRate("JPY"));
+        assertArrayEquals(rateTable.toJsonBytes(), decoded.toJsonBytes());
+    }
+
+    @Test
+    void testRateTableCodecDropsCodesTheRegistryDoesNotKnow() {
+        RateTableCodec codec = new RateTableCodec(new CurrencyOrdinals(List.of("USD", "EUR"), 8));
+
+        RateTable decoded = codec.decode(new RateTableCodec(currencyOrdinals).encode(usdRates(0.92)));
+
+        assertEquals(0.92, decoded.getRate("EUR"));
+        assertTrue(Double.isNaN(decoded.getRate("JPY")));
+        assertEquals("{\"EUR\":0.92}", new String(decoded.toJsonBytes(), StandardCharsets.UTF_8));
+    }
+
+    @Test
+    void testColdReplicaIsServedFromSharedLevel() {
+        TwoLevelCache<RateTable> warm = replica();
+        warm.put("USD", usdRates(0.92));
+
+        TwoLevelCache<RateTable> cold = replica();
+        RateTable rateTable = cold.get("USD", () -> {
+            throw new IllegalStateException("loader must not run");
+        });
+
+        assertEquals(0.92, rateTable.getRate("EUR"));
+        assertEquals(1, cold.getSharedHitCount());
+    }
+
+    @Test
+    void testColdReplicaKeepsTheRemainingTtl() throws InterruptedException {
+        TwoLevelCache<RateTable> warm = replica(Duration.ofMillis(1000));
+        warm.put("USD", usdRates(0.92));
+        Thread.sleep(700);
+
+        TwoLevelCache<RateTable> cold = replica(Duration.ofMillis(1000));
+        assertEquals(0.92, cold.get("USD", () -> usdRates(0.5)).getRate("EUR"));
+        Thread.sleep(400);
+
+        assertNull(cold.getLocalCache().get("USD"));
+    }
+
+    @Test
+    void testWritesArePushedToOtherReplicas() {
+        TwoLevelCache<RateTable> first = replica();
+        TwoLevelCache<RateTable> second = replica();
+        first.put("USD", usdRates(0.92));
+        second.get("USD");
+
+        first.put("USD", usdRates(0.93));
+
+        assertEquals(0.93, second.getLocalCache().get("USD", RateTable.class).getRate("EUR"));
+        assertEquals(2, second.getReceivedMessageCount());
+
+        first.evict("USD");
+
+        assertNull(second.getLocalCache().get("USD"));
+        assertNull(second.get("USD"));
+    }
+
+    @Test
+    void testSharedLevelFailureFallsBackToLoader() {
+        TwoLevelCache<RateTable> cache = new TwoLevelCache<>(new TtlCache("exchangeRates", Duration.ofHours(1)),
+                new FailingSharedCacheStore(), new RateTableCodec(currencyOrdinals), "test");
+
+        RateTable rateTable = cache.get("USD", () -> usdRates(0.92));
+
+        assertEquals(0.92, rateTable.getRate("EUR"));
+        assertEquals(0.92, cache.get("USD", RateTable.class).getRate("EUR"));
+        assertEquals(2, cache.getSharedErrorCount());
+    }
+
+    private TwoLevelCache<RateTable> replica() {
+        return replica(Duration.ofHours(1));
+    }
+
+    private TwoLevelCache<RateTable> replica(Duration ttl) {
+        return new TwoLevelCache<>(new TtlCache("exchangeRates", ttl), sharedStore, new RateTableCodec(currencyOrdinals), "test");
+    }
+
+    private RateTable usdRates(double eur) {
+        ObjectNode rates = JsonNodeFactory.instance.objectNode();
+        rates.put("EUR", eur);
+        rates.put("JPY", 151.37);
+        return RateTable.fromJson(currencyOrdinals, "USD", rates, LocalDateTime.of(2025, 3, 1, 14, 0, 5, 123_000_000));
+    }
+
+    private static class FailingSharedCacheStore implements SharedCacheStore {
+
+        @Override
+        public byte[] get(String key) {
+            throw new IllegalStateException("connection refused");
+        }
+
+        @Override
+        public void put(String key, byte[] value, Duration ttl) {
+            throw new IllegalStateException("connection refused");
+        }
+
+        @Override
+        public void delete(String key) {
+            throw new IllegalStateException("connection refused");
+        }
+
+        @Override
+        public void deleteByPrefix(String prefix) {
+            throw new IllegalStateException("connection refused");
+        }
+
+        @Override
+        public void publish(String channel, byte[] message) {
+            throw new IllegalStateException("connection refused");
+        }
+
+        @Override
+        public void subscribe(String channel, Consumer<byte[]> listener) {
+        }
+    }
+}
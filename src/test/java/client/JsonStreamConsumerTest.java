@@ -0,0 +1,142 @@
+package client;
+
+import com.fasterxml.jackson.core.JsonParseException;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import org.apache.hc.core5.concurrent.FutureCallback;
+import org.apache.hc.core5.http.ContentType;
+import org.apache.hc.core5.http.HttpException;
+import org.apache.hc.core5.http.impl.BasicEntityDetails;
+import org.apache.hc.core5.http.message.BasicHttpResponse;
+import org.apache.hc.core5.http.protocol.HttpCoreContext;
+import org.example.client.JsonStreamConsumer;
+import org.example.client.JsonStreamHandler;
+import org.example.client.LatestRatesHandler;
+import org.example.model.CurrencyOrdinals;
+import org.example.model.RateTable;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class JsonStreamConsumerTest {
+
+    private static final byte[] BODY = ("{\"success\":true,\"timestamp\":1740830405,\"base\":\"EUR\","
+            + "\"rates\":{\"USD\":1.0812345,\"JPY\":161.87,\"XAU\":4.26E-4,\"BTC\":-0.5},"
+            + "\"note\":\"S\u00e3o Tom\u00e9 \\\"quoted\\\" \\u20ac\"}").getBytes(StandardCharsets.UTF_8);
+
+    private final CurrencyOrdinals currencyOrdinals = CurrencyOrdinals.withIsoCodes(List.of("BTC"), 512);
+
+    @Test
+    void testEverySplitPointYieldsTheSameTokens() throws Exception {
+        List<String> expected = consume(new TokenRecorder(), BODY);
+
+        for (int split = 1; split < BODY.length; split++) {
+            byte[] head = Arrays.copyOfRange(BODY, 0, split);
+            byte[] tail = Arrays.copyOfRange(BODY, split, BODY.length);
+            assertEquals(expected, consume(new TokenRecorder(), head, tail), "split at byte " + split);
+        }
+    }
+
+    @Test
+    void testSingleByteChunksYieldTheSameTokens() throws Exception {
+        byte[][] chunks = new byte[BODY.length][];
+        for (int i = 0; i < BODY.length; i++) {
+            chunks[i] = new byte[]{BODY[i]};
+        }
+
+        List<String> tokens = consume(new TokenRecorder(), chunks);
+
+        assertEquals(consume(new TokenRecorder(), BODY), tokens);
+        assertTrue(tokens.contains("VALUE_STRING S\u00e3o Tom\u00e9 \"quoted\" \u20ac"));
+        assertTrue(tokens.contains("VALUE_NUMBER_FLOAT 4.26E-4"));
+    }
+
+    @Test
+    void testRatesSplitInsideCodesAndNumbers() throws Exception {
+        String body = "{\"success\":true,\"rates\":{\"USD\":1.0812345,\"JPY\":161.87}}";
+        int insideCode = body.indexOf("USD") + 1;
+        int insideNumber = body.indexOf("161") + 2;
+
+        RateTable rateTable = consume(new LatestRatesHandler(currencyOrdinals, "EUR"),
+                body.substring(0, insideCode).getBytes(StandardCharsets.UTF_8),
+                body.substring(insideCode, insideNumber).getBytes(StandardCharsets.UTF_8),
+                body.substring(insideNumber).getBytes(StandardCharsets.UTF_8));
+
+        assertEquals(1.0812345, rateTable.getRate("USD"));
+        assertEquals(161.87, rateTable.getRate("JPY"));
+    }
+
+    @Test
+    void testTruncatedBodyFails() {
+        String body = "{\"success\":true,\"rates\":{\"USD\":1.08";
+        for (String truncated : List.of(body, body.substring(0, body.indexOf("USD") + 2))) {
+            assertThrows(JsonParseException.class,
+                    () -> consume(new LatestRatesHandler(currencyOrdinals, "EUR"), truncated.getBytes(StandardCharsets.UTF_8)));
+        }
+    }
+
+    @Test
+    void testErrorStatusIsRejectedBeforeTheBody() {
+        JsonStreamConsumer<List<String>> consumer = new JsonStreamConsumer<>(new TokenRecorder());
+
+        assertThrows(HttpException.class, () -> consumer.consumeResponse(new BasicHttpResponse(503),
+                new BasicEntityDetails(-1, ContentType.APPLICATION_JSON), HttpCoreContext.create(), null));
+    }
+
+    private static <T> T consume(JsonStreamHandler<T> handler, byte[]... chunks) throws IOException, HttpException {
+        JsonStreamConsumer<T> consumer = new JsonStreamConsumer<>(handler);
+        AtomicReference<T> result = new AtomicReference<>();
+        consumer.consumeResponse(new BasicHttpResponse(200), new BasicEntityDetails(-1, ContentType.APPLICATION_JSON),
+                HttpCoreContext.create(), new FutureCallback<>() {
+                    @Override
+                    public void completed(T value) {
+                        result.set(value);
+                    }
+
+                    @Override
+                    public void failed(Exception e) {
+                    }
+
+                    @Override
+                    public void cancelled() {
+                    }
+                });
+        try {
+            for (byte[] chunk : chunks) {
+                consumer.consume(ByteBuffer.wrap(chunk));
+            }
+            consumer.streamEnd(null);
+        } finally {
+            consumer.releaseResources();
+        }
+        return result.get();
+    }
+
+    /**
+     * Records every token with its text, so any difference in how a chunked body is tokenized shows up.
+     */
+    private static final class TokenRecorder implements JsonStreamHandler<List<String>> {
+
+        private final List<String> tokens = new ArrayList<>();
+
+        @Override
+        public void onToken(JsonParser parser, JsonToken token) throws IOException {
+            tokens.add(token + " " + parser.getText());
+        }
+
+        @Override
+        public List<String> getResult() {
+            return tokens;
+        }
+    }
+}
@@ -0,0 +1,92 @@
+package client;
+
+import com.sun.net.httpserver.HttpServer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.apache.hc.client5.http.impl.async.CloseableHttpAsyncClient;
+import org.apache.hc.client5.http.impl.async.HttpAsyncClients;
+import org.apache.hc.client5.http.impl.nio.PoolingAsyncClientConnectionManager;
+import org.apache.hc.client5.http.impl.nio.PoolingAsyncClientConnectionManagerBuilder;
+import org.example.client.LatestRatesHandler;
+import org.example.client.UpstreamClient;
+import org.example.exception.ExternalApiException;
+import org.example.model.CurrencyOrdinals;
+import org.example.model.RateTable;
+import org.example.model.UpstreamClientStats;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class UpstreamClientTest {
+
+    private final CurrencyOrdinals currencyOrdinals = CurrencyOrdinals.withIsoCodes(List.of(), 512);
+
+    private HttpServer server;
+    private CloseableHttpAsyncClient httpClient;
+    private UpstreamClient upstreamClient;
+    private SimpleMeterRegistry meterRegistry;
+    private String baseUrl;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        server.createContext("/latest", exchange -> {
+            byte[] body = "{\"success\":true,\"rates\":{\"USD\":1.08}}".getBytes(StandardCharsets.UTF_8);
+            exchange.getResponseHeaders().add("Content-Type", "application/json");
+            exchange.sendResponseHeaders(200, body.length);
+            exchange.getResponseBody().write(body);
+            exchange.close();
+        });
+        server.createContext("/missing", exchange -> {
+            exchange.sendResponseHeaders(404, -1);
+            exchange.close();
+        });
+        server.start();
+        baseUrl = "http://127.0.0.1:" + server.getAddress().getPort();
+
+        PoolingAsyncClientConnectionManager connectionManager = PoolingAsyncClientConnectionManagerBuilder.create()
+                .setMaxConnPerRoute(1)
+                .build();
+        httpClient = HttpAsyncClients.custom().setConnectionManager(connectionManager).build();
+        httpClient.start();
+        meterRegistry = new SimpleMeterRegistry();
+        upstreamClient = new UpstreamClient(httpClient, connectionManager, meterRegistry);
+    }
+
+    @AfterEach
+    void tearDown() throws Exception {
+        httpClient.close();
+        server.stop(0);
+    }
+
+    @Test
+    void testGetJsonReusesPooledConnection() {
+        LatestRatesHandler handler = new LatestRatesHandler(currencyOrdinals, "EUR");
+        RateTable first = upstreamClient.get(baseUrl + "/latest", handler);
+        upstreamClient.get(baseUrl + "/latest", new LatestRatesHandler(currencyOrdinals, "EUR"));
+
+        assertTrue(handler.isSuccess());
+        assertEquals(1.08, first.getRate("USD"));
+        UpstreamClientStats stats = upstreamClient.getStats();
+        assertEquals(2, stats.requests());
+        assertEquals(1, stats.reusedConnectionRequests());
+        assertEquals(0, stats.failures());
+        assertEquals(2, meterRegistry.get("upstream.requests")
+                .tags("endpoint", "/latest", "outcome", "success")
+                .timer()
+                .count());
+    }
+
+    @Test
+    void testGetJsonFailsOnErrorStatus() {
+        assertThrows(ExternalApiException.class, () -> upstreamClient.get(baseUrl + "/missing", new LatestRatesHandler(currencyOrdinals, "EUR")));
+        assertEquals(1, upstreamClient.getStats().failures());
+    }
+}
@@ -5,23 +5,40 @@ import com.fasterxml.jackson.databind.node.ObjectNode;
 import org.example.CurrencyApplication;
 import org.example.entity.Currency;
 import org.example.entity.ExchangeRate;
+import org.example.exception.CurrencyNotFoundException;
 import org.example.exception.ExchangeRateServiceException;
+import org.example.exception.ExchangeRatesNotStoredException;
+import org.example.exception.InvalidRangeException;
+import org.example.model.Conversion;
+import org.example.model.CurrencyOrdinals;
+import org.example.model.RatePoint;
+import org.example.model.RateTable;
 import org.example.service.CurrencyService;
 import org.example.service.ExchangeRateService;
+import org.example.service.RateHistoryService;
+import org.example.service.RateStreamService;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
 import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.MediaType;
 import org.springframework.test.web.servlet.MockMvc;
 
+import java.math.BigDecimal;
+import java.time.LocalDate;
 import java.time.LocalDateTime;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 
+import static org.mockito.ArgumentMatchers.anyList;
 import static org.mockito.Mockito.when;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
@@ -29,6 +46,8 @@ import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.
 @AutoConfigureMockMvc
 class CurrencyControllerTest {
 
+    private final CurrencyOrdinals currencyOrdinals = CurrencyOrdinals.withIsoCodes(List.of(), 512);
+
     @Autowired
     private MockMvc mockMvc;
 
@@ -38,6 +57,12 @@ class CurrencyControllerTest {
     @MockBean
     private ExchangeRateService exchangeRateService;
 
+    @MockBean
+    private RateHistoryService rateHistoryService;
+
+    @MockBean
+    private RateStreamService rateStreamService;
+
     @Test
     void testGetAllCurrencies_emptyList() throws Exception {
         when(currencyService.getAllCurrencies()).thenReturn(List.of());
@@ -98,7 +123,7 @@ class CurrencyControllerTest {
 
         ExchangeRate exchangeRate = new ExchangeRate(currency, ratesNode, LocalDateTime.now());
 
-        when(exchangeRateService.getExchangeRate("USD")).thenReturn(exchangeRate);
+        when(exchangeRateService.getExchangeRate("USD")).thenReturn(RateTable.of(currencyOrdinals, exchangeRate));
 
         mockMvc.perform(get("/currencies/USD/rates")
                         .contentType(MediaType.APPLICATION_JSON))
@@ -106,6 +131,73 @@ class CurrencyControllerTest {
                 .andExpect(jsonPath("$.AED").value(1.0));
     }
 
+    @Test
+    void testGetExchangeRates_notModified() throws Exception {
+        ObjectNode ratesNode = new ObjectMapper().createObjectNode();
+        ratesNode.put("AED", 1.0);
+        RateTable rateTable = RateTable.of(currencyOrdinals, new ExchangeRate(new Currency("USD"), ratesNode, LocalDateTime.now()));
+        when(exchangeRateService.getExchangeRate("USD")).thenReturn(rateTable);
+
+        mockMvc.perform(get("/currencies/USD/rates"))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.ETAG, rateTable.getETag()));
+        mockMvc.perform(get("/currencies/USD/rates")
+                        .header(HttpHeaders.IF_NONE_MATCH, rateTable.getETag()))
+                .andExpect(status().isNotModified())
+                .andExpect(header().string(HttpHeaders.ETAG, rateTable.getETag()))
+                .andExpect(header().string(HttpHeaders.VARY, HttpHeaders.ACCEPT_ENCODING));
+    }
+
+    @Test
+    void testGetExchangeRates_gzip() throws Exception {
+        ObjectNode ratesNode = new ObjectMapper().createObjectNode();
+        ratesNode.put("AED", 1.0);
+        RateTable rateTable = RateTable.of(currencyOrdinals, new ExchangeRate(new Currency("USD"), ratesNode, LocalDateTime.now()));
+        when(exchangeRateService.getExchangeRate("USD")).thenReturn(rateTable);
+
+        mockMvc.perform(get("/currencies/USD/rates")
+                        .header(HttpHeaders.ACCEPT_ENCODING, "gzip, deflate"))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.CONTENT_ENCODING, "gzip"))
+                .andExpect(header().string(HttpHeaders.ETAG, rateTable.getGzipETag()))
+                .andExpect(header().string(HttpHeaders.VARY, HttpHeaders.ACCEPT_ENCODING))
+                .andExpect(content().bytes(rateTable.toGzippedJsonBytes()));
+    }
+
+    @Test
+    void testGetExchangeRates_gzipNotModifiedOnlyByGzipTag() throws Exception {
+        ObjectNode ratesNode = new ObjectMapper().createObjectNode();
+        ratesNode.put("AED", 1.0);
+        RateTable rateTable = RateTable.of(currencyOrdinals, new ExchangeRate(new Currency("USD"), ratesNode, LocalDateTime.now()));
+        when(exchangeRateService.getExchangeRate("USD")).thenReturn(rateTable);
+
+        mockMvc.perform(get("/currencies/USD/rates")
+                        .header(HttpHeaders.ACCEPT_ENCODING, "gzip")
+                        .header(HttpHeaders.IF_NONE_MATCH, rateTable.getETag()))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.ETAG, rateTable.getGzipETag()));
+        mockMvc.perform(get("/currencies/USD/rates")
+                        .header(HttpHeaders.ACCEPT_ENCODING, "gzip")
+                        .header(HttpHeaders.IF_NONE_MATCH, rateTable.getGzipETag()))
+                .andExpect(status().isNotModified())
+                .andExpect(header().string(HttpHeaders.VARY, HttpHeaders.ACCEPT_ENCODING));
+    }
+
+    @Test
+    void testGetExchangeRates_gzipRefused() throws Exception {
+        ObjectNode ratesNode = new ObjectMapper().createObjectNode();
+        ratesNode.put("AED", 1.0);
+        RateTable rateTable = RateTable.of(currencyOrdinals, new ExchangeRate(new Currency("USD"), ratesNode, LocalDateTime.now()));
+        when(exchangeRateService.getExchangeRate("USD")).thenReturn(rateTable);
+
+        mockMvc.perform(get("/currencies/USD/rates")
+                        .header(HttpHeaders.ACCEPT_ENCODING, "gzip;q=0, identity"))
+                .andExpect(status().isOk())
+                .andExpect(header().doesNotExist(HttpHeaders.CONTENT_ENCODING))
+                .andExpect(header().string(HttpHeaders.ETAG, rateTable.getETag()))
+                .andExpect(content().bytes(rateTable.toJsonBytes()));
+    }
+
     @Test
     void testGetExchangeRates_notFound() throws Exception {
         when(exchangeRateService.getExchangeRate("XYZ")).thenReturn(null);
@@ -141,4 +233,116 @@ class CurrencyControllerTest {
                 .andExpect(status().isInternalServerError())
                 .andExpect(jsonPath("$.error").value("Service error"));
     }
+
+    @Test
+    void testGetExchangeRates_notStoredYet() throws Exception {
+        when(exchangeRateService.getExchangeRate("USD"))
+                .thenThrow(new ExchangeRatesNotStoredException("No exchange rate snapshot stored yet for currency: USD"));
+
+        mockMvc.perform(get("/currencies/USD/rates")
+                        .contentType(MediaType.APPLICATION_JSON))
+                .andExpect(status().isServiceUnavailable())
+                .andExpect(jsonPath("$.error").value("No exchange rate snapshot stored yet for currency: USD"));
+    }
+
+    @Test
+    void testConvert_success() throws Exception {
+        Conversion conversion = new Conversion("USD", "JPY", new BigDecimal("100"), 150.5, new BigDecimal("15050"),
+                LocalDateTime.now());
+        when(exchangeRateService.convert("USD", "JPY", new BigDecimal("100"))).thenReturn(conversion);
+
+        mockMvc.perform(get("/currencies/USD/convert/JPY")
+                        .param("amount", "100")
+                        .contentType(MediaType.APPLICATION_JSON))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.from").value("USD"))
+                .andExpect(jsonPath("$.to").value("JPY"))
+                .andExpect(jsonPath("$.rate").value(150.5))
+                .andExpect(jsonPath("$.result").value(15050));
+    }
+
+    @Test
+    void testConvert_invalidAmount() throws Exception {
+        mockMvc.perform(get("/currencies/USD/convert/JPY")
+                        .param("amount", "-5")
+                        .contentType(MediaType.APPLICATION_JSON))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.error").value("Amount must be positive"));
+    }
+
+    @Test
+    void testConvert_unknownQuote() throws Exception {
+        when(exchangeRateService.convert("USD", "XYZ", BigDecimal.ONE))
+                .thenThrow(new CurrencyNotFoundException("Exchange rate not available: USD -> XYZ"));
+
+        mockMvc.perform(get("/currencies/USD/convert/XYZ")
+                        .param("amount", "1")
+                        .contentType(MediaType.APPLICATION_JSON))
+                .andExpect(status().isNotFound())
+                .andExpect(jsonPath("$.error").value("Exchange rate not available: USD -> XYZ"));
+    }
+
+    @Test
+    void testGetExchangeRatesBatch_success() throws Exception {
+        ObjectNode usdRates = new ObjectMapper().createObjectNode();
+        usdRates.put("EUR", 0.9);
+        ObjectNode eurRates = new ObjectMapper().createObjectNode();
+        eurRates.put("USD", 1.1);
+        Map<String, RateTable> rateTables = new LinkedHashMap<>();
+        rateTables.put("USD", RateTable.of(currencyOrdinals, new ExchangeRate(new Currency("USD"), usdRates, LocalDateTime.now())));
+        rateTables.put("EUR", RateTable.of(currencyOrdinals, new ExchangeRate(new Currency("EUR"), eurRates, LocalDateTime.now())));
+        when(exchangeRateService.getExchangeRates(anyList())).thenReturn(rateTables);
+
+        mockMvc.perform(get("/currencies/rates")
+                        .param("bases", "USD,EUR")
+                        .contentType(MediaType.APPLICATION_JSON))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.USD.EUR").value(0.9))
+                .andExpect(jsonPath("$.EUR.USD").value(1.1));
+    }
+
+    @Test
+    void testGetExchangeRatesBatch_invalidCode() throws Exception {
+        mockMvc.perform(get("/currencies/rates")
+                        .param("bases", "USD,E1R")
+                        .contentType(MediaType.APPLICATION_JSON))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.error").value("Currency code must consist of 3 letters"));
+    }
+
+    @Test
+    void testGetRateAt_success() throws Exception {
+        LocalDateTime at = LocalDateTime.of(2025, 3, 1, 14, 0);
+        when(rateHistoryService.getRateAt("USD", "EUR", at))
+                .thenReturn(new RatePoint(LocalDateTime.of(2025, 3, 1, 13, 40), new BigDecimal("0.9512")));
+
+        mockMvc.perform(get("/currencies/USD/rates/EUR")
+                        .param("at", "2025-03-01T14:00:00")
+                        .contentType(MediaType.APPLICATION_JSON))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.rate").value(0.9512));
+    }
+
+    @Test
+    void testGetDailyRates_invalidRange() throws Exception {
+        when(exchangeRateService.getDailyRates("USD", "EUR", LocalDate.of(2025, 3, 2), LocalDate.of(2025, 3, 1)))
+                .thenThrow(new InvalidRangeException("Start date must not be after end date"));
+
+        mockMvc.perform(get("/currencies/USD/rates/EUR/daily")
+                        .param("from", "2025-03-02")
+                        .param("to", "2025-03-01"))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.error").value("Start date must not be after end date"));
+    }
+
+    @Test
+    void testGetDailyRates_internalIllegalArgumentIsServerError() throws Exception {
+        when(exchangeRateService.getDailyRates("USD", "EUR", LocalDate.of(2025, 3, 1), LocalDate.of(2025, 3, 2)))
+                .thenThrow(new NumberFormatException("For input string: \"x\""));
+
+        mockMvc.perform(get("/currencies/USD/rates/EUR/daily")
+                        .param("from", "2025-03-01")
+                        .param("to", "2025-03-02"))
+                .andExpect(status().isInternalServerError());
+    }
 }
@@ -0,0 +1,52 @@
+package model;
+
+import org.example.model.CurrencyOrdinals;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class CurrencyOrdinalsTest {
+
+    @Test
+    void testKnownCodesKeepTheirOrdinal() {
+        CurrencyOrdinals ordinals = CurrencyOrdinals.withIsoCodes(List.of(), 512);
+
+        int usd = ordinals.intern("USD");
+        int eur = ordinals.intern("EUR");
+
+        assertEquals(0, usd);
+        assertEquals(1, eur);
+        assertEquals(usd, ordinals.intern("USD"));
+        assertEquals("EUR", ordinals.codeOf(eur));
+        assertEquals(2, ordinals.size());
+    }
+
+    @Test
+    void testUnknownCodesAreIgnored() {
+        CurrencyOrdinals ordinals = CurrencyOrdinals.withIsoCodes(List.of("BTC"), 512);
+
+        assertEquals(-1, ordinals.intern("ZZQ"));
+        assertEquals(-1, ordinals.intern("usd"));
+        assertEquals(0, ordinals.intern("BTC"));
+        assertEquals(-1, ordinals.ordinalOf("ZZQ"));
+        assertEquals(1, ordinals.size());
+    }
+
+    @Test
+    void testRegistryStopsGrowingAtItsBound() {
+        CurrencyOrdinals ordinals = new CurrencyOrdinals(List.of("USD", "EUR", "JPY"), 2);
+
+        assertEquals(0, ordinals.intern("USD"));
+        assertEquals(1, ordinals.intern("EUR"));
+        assertEquals(-1, ordinals.intern("JPY"));
+        assertEquals(2, ordinals.size());
+    }
+
+    @Test
+    void testNonPositiveBoundIsRejected() {
+        assertThrows(IllegalArgumentException.class, () -> new CurrencyOrdinals(List.of("USD"), 0));
+    }
+}
@@ -22,6 +22,7 @@ import static org.junit.jupiter.api.Assertions.assertNotNull;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.mockito.ArgumentMatchers.anyString;
 import static org.mockito.Mockito.any;
+import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
@@ -98,4 +99,27 @@ class CurrencyServiceTest {
 
         assertThrows(CurrencyNotFoundException.class, () -> currencyService.getCurrencyByCode("XYZ"));
     }
+
+    @Test
+    void testGetCurrencyByCodeUsesIndex() {
+        when(currencyRepository.findAll()).thenReturn(List.of(new Currency("USD"), new Currency("EUR")));
+        currencyService.rebuildCurrencyIndex();
+
+        Currency result = currencyService.getCurrencyByCode("usd");
+
+        assertEquals("USD", result.getCode());
+        verify(currencyRepository, never()).findByCode(anyString());
+    }
+
+    @Test
+    void testAddCurrencyUpdatesIndex() {
+        when(currencyRepository.findByCode(anyString())).thenReturn(Optional.empty());
+        when(currencyRepository.save(any(Currency.class))).thenAnswer(invocation -> invocation.getArgument(0));
+
+        currencyService.addCurrency("GBP");
+        Currency result = currencyService.getCurrencyByCode("GBP");
+
+        assertEquals("GBP", result.getCode());
+        verify(currencyRepository, times(1)).findByCode("GBP");
+    }
 }
@@ -1,43 +1,98 @@
 package service;
 
+import com.fasterxml.jackson.databind.node.JsonNodeFactory;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import io.github.resilience4j.ratelimiter.RateLimiterRegistry;
 import org.example.entity.Currency;
 import org.example.entity.ExchangeRate;
+import org.example.entity.LatestExchangeRate;
+import org.example.exception.CurrencyNotFoundException;
 import org.example.exception.ExchangeRateServiceException;
+import org.example.exception.ExchangeRatesNotStoredException;
+import org.example.model.Conversion;
+import org.example.model.CurrencyOrdinals;
+import org.example.model.RateTable;
+import org.example.model.RateUpdate;
+import org.example.model.RatesUpdatedEvent;
+import org.example.repository.ExchangeRateDailyRepository;
 import org.example.repository.ExchangeRateRepository;
+import org.example.repository.LatestExchangeRateRepository;
+import org.example.service.CrossRateCalculator;
 import org.example.service.CurrencyService;
 import org.example.service.ExchangeRateService;
 import org.example.service.ExternalApiService;
+import org.example.service.LeaderElectionService;
+import org.example.service.RateDeltaCalculator;
+import org.example.service.RefreshPipeline;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.MockitoAnnotations;
+import org.mockito.Spy;
 import org.springframework.cache.Cache;
 import org.springframework.cache.CacheManager;
 import org.springframework.cache.concurrent.ConcurrentMapCache;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.DataAccessResourceFailureException;
 import org.springframework.test.util.ReflectionTestUtils;
 
+import java.math.BigDecimal;
 import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
 import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.doNothing;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
 class ExchangeRateServiceTest {
 
+    private final CurrencyOrdinals currencyOrdinals = CurrencyOrdinals.withIsoCodes(List.of(), 512);
+
     @Mock
     private ExchangeRateRepository exchangeRateRepository;
 
+    @Mock
+    private LatestExchangeRateRepository latestExchangeRateRepository;
+
+    @Mock
+    private ExchangeRateDailyRepository exchangeRateDailyRepository;
+
     @Mock
     private CurrencyService currencyService;
 
     @Mock
     private ExternalApiService externalApiService;
 
+    @Mock
+    private CrossRateCalculator crossRateCalculator;
+
+    @Mock
+    private RefreshPipeline refreshPipeline;
+
+    @Spy
+    private RateDeltaCalculator rateDeltaCalculator = new RateDeltaCalculator(currencyOrdinals, 0, false);
+
+    @Mock
+    private LeaderElectionService leaderElectionService;
+
     @Mock
     private CacheManager cacheManager;
 
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+
     @InjectMocks
     private ExchangeRateService exchangeRateService;
 
@@ -48,6 +103,8 @@ class ExchangeRateServiceTest {
         MockitoAnnotations.openMocks(this);
         exchangeRateCache = new ConcurrentMapCache("exchangeRates");
         ReflectionTestUtils.setField(exchangeRateService, "exchangeRateCache", exchangeRateCache);
+        ReflectionTestUtils.setField(exchangeRateService, "currencyOrdinals", currencyOrdinals);
+        when(leaderElectionService.isLeader()).thenReturn(true);
     }
 
     @Test
@@ -56,26 +113,64 @@ class ExchangeRateServiceTest {
         ExchangeRate exchangeRate = new ExchangeRate(currency, null, LocalDateTime.now());
 
         when(currencyService.getCurrencyByCode("USD")).thenReturn(currency);
-        exchangeRateCache.put("USD", exchangeRate);
-        ExchangeRate result = exchangeRateService.getExchangeRate("USD");
+        exchangeRateCache.put("USD", RateTable.of(currencyOrdinals, exchangeRate));
+        RateTable result = exchangeRateService.getExchangeRate("USD");
 
         assertNotNull(result);
-        assertEquals("USD", result.getCurrency().getCode());
+        assertEquals("USD", result.getBaseCode());
     }
 
     @Test
     void testGetExchangeRateWithMissingCache() {
         Currency currency = new Currency("USD");
-        ExchangeRate exchangeRate = new ExchangeRate(currency, null, LocalDateTime.now());
         when(currencyService.getCurrencyByCode("USD")).thenReturn(currency);
-        when(externalApiService.fetchExchangeRate(currency)).thenReturn(exchangeRate);
+        when(externalApiService.fetchExchangeRate(currency)).thenReturn(RateTable.fromJson(currencyOrdinals, "USD", null, LocalDateTime.now()));
 
-        ExchangeRate result = exchangeRateService.getExchangeRate("USD");
+        RateTable result = exchangeRateService.getExchangeRate("USD");
 
         assertNotNull(result);
-        assertEquals("USD", result.getCurrency().getCode());
+        assertEquals("USD", result.getBaseCode());
 
-        assertEquals(exchangeRate, exchangeRateCache.get("USD").get());
+        assertEquals(result, exchangeRateCache.get("USD").get());
+    }
+
+    @Test
+    void testGetExchangeRateReadsLatestProjection() {
+        Currency currency = new Currency("USD");
+        when(currencyService.getCurrencyByCode("USD")).thenReturn(currency);
+        when(latestExchangeRateRepository.findByCurrency(currency))
+                .thenReturn(new LatestExchangeRate(currency, 1L, null, LocalDateTime.now()));
+
+        RateTable result = exchangeRateService.getExchangeRate("USD");
+
+        assertEquals("USD", result.getBaseCode());
+        verify(externalApiService, never()).fetchExchangeRate(any(Currency.class));
+    }
+
+    @Test
+    void testFollowerServesStoredSnapshotWithoutFetchingOrWriting() {
+        Currency currency = new Currency("USD");
+        when(leaderElectionService.isLeader()).thenReturn(false);
+        when(currencyService.getCurrencyByCode("USD")).thenReturn(currency);
+        when(latestExchangeRateRepository.findByCurrency(currency))
+                .thenReturn(new LatestExchangeRate(currency, 1L, null, LocalDateTime.now().minusHours(3)));
+
+        RateTable result = exchangeRateService.getExchangeRate("USD");
+
+        assertEquals("USD", result.getBaseCode());
+        verify(externalApiService, never()).fetchExchangeRate(any(Currency.class));
+        verify(exchangeRateRepository, never()).save(any());
+    }
+
+    @Test
+    void testFollowerWithoutStoredSnapshotDoesNotFetch() {
+        Currency currency = new Currency("USD");
+        when(leaderElectionService.isLeader()).thenReturn(false);
+        when(currencyService.getCurrencyByCode("USD")).thenReturn(currency);
+
+        assertThrows(ExchangeRatesNotStoredException.class, () -> exchangeRateService.getExchangeRate("USD"));
+        verify(externalApiService, never()).fetchExchangeRate(any(Currency.class));
+        verify(exchangeRateRepository, never()).save(any());
     }
 
     @Test
@@ -86,4 +181,177 @@ class ExchangeRateServiceTest {
 
         assertThrows(ExchangeRateServiceException.class, () -> exchangeRateService.getExchangeRate("USD"));
     }
+
+    @Test
+    void testUpdateExchangeRatesDerivesAllBasesFromPivot() {
+        Currency eur = new Currency("EUR");
+        Currency usd = new Currency("USD");
+        Currency jpy = new Currency("JPY");
+
+        ExchangeRateService triangulatingService = new ExchangeRateService(exchangeRateRepository, latestExchangeRateRepository,
+                exchangeRateDailyRepository, currencyService, externalApiService, new CrossRateCalculator(currencyOrdinals, true, "EUR", 10),
+                new RefreshPipeline(RateLimiterRegistry.ofDefaults(), 4, 10), new RateDeltaCalculator(currencyOrdinals, 0, true),
+                currencyOrdinals, leaderElectionService, cacheManager, eventPublisher);
+        ReflectionTestUtils.setField(triangulatingService, "exchangeRateCache", exchangeRateCache);
+        when(currencyService.getAllCurrencies()).thenReturn(List.of(eur, usd, jpy));
+        when(currencyService.getCurrencyByCode("EUR")).thenReturn(eur);
+        when(externalApiService.fetchExchangeRate(eur)).thenReturn(
+                RateTable.fromJson(currencyOrdinals, "EUR", pivotRates(158.75), LocalDateTime.of(2025, 3, 1, 10, 0)),
+                RateTable.fromJson(currencyOrdinals, "EUR", pivotRates(160.0), LocalDateTime.of(2025, 3, 1, 11, 0)));
+
+        triangulatingService.updateExchangeRates();
+        triangulatingService.updateExchangeRates();
+
+        RateTable usdRates = (RateTable) exchangeRateCache.get("USD").get();
+        assertEquals(1.0, usdRates.getRate("USD"));
+        assertEquals(0.8, usdRates.getRate("EUR"));
+        assertEquals(128.0, usdRates.getRate("JPY"));
+        verify(externalApiService, times(2)).fetchExchangeRate(any(Currency.class));
+
+        ArgumentCaptor<RatesUpdatedEvent> event = ArgumentCaptor.forClass(RatesUpdatedEvent.class);
+        verify(eventPublisher, times(2)).publishEvent(event.capture());
+        assertEquals(3, event.getValue().updates().size());
+        RateUpdate usdUpdate = event.getValue().updates().stream()
+                .filter(update -> update.baseCode().equals("USD"))
+                .findFirst()
+                .orElseThrow();
+        assertEquals(Map.of("JPY", 128.0), usdUpdate.rates());
+        assertFalse(usdUpdate.full());
+
+        ArgumentCaptor<List<ExchangeRate>> saved = ArgumentCaptor.forClass(List.class);
+        verify(exchangeRateRepository, times(2)).saveRefresh(saved.capture());
+        ExchangeRate savedUsd = saved.getValue().stream()
+                .filter(exchangeRate -> exchangeRate.getCurrency() == usd)
+                .findFirst()
+                .orElseThrow();
+        assertTrue(savedUsd.isPartial());
+        assertEquals(1, savedUsd.getRates().size());
+    }
+
+    @Test
+    void testFailedSaveKeepsDeltasForTheNextCycle() {
+        Currency eur = new Currency("EUR");
+        ExchangeRateService changedOnlyService = new ExchangeRateService(exchangeRateRepository, latestExchangeRateRepository,
+                exchangeRateDailyRepository, currencyService, externalApiService, new CrossRateCalculator(currencyOrdinals, true, "EUR", 10),
+                new RefreshPipeline(RateLimiterRegistry.ofDefaults(), 4, 10), new RateDeltaCalculator(currencyOrdinals, 0, true),
+                currencyOrdinals, leaderElectionService, cacheManager, eventPublisher);
+        ReflectionTestUtils.setField(changedOnlyService, "exchangeRateCache", exchangeRateCache);
+        when(currencyService.getAllCurrencies()).thenReturn(List.of(eur));
+        when(currencyService.getCurrencyByCode("EUR")).thenReturn(eur);
+        when(externalApiService.fetchExchangeRate(eur)).thenReturn(
+                RateTable.fromJson(currencyOrdinals, "EUR", pivotRates(158.75), LocalDateTime.of(2025, 3, 1, 10, 0)),
+                RateTable.fromJson(currencyOrdinals, "EUR", pivotRates(160.0), LocalDateTime.of(2025, 3, 1, 11, 0)),
+                RateTable.fromJson(currencyOrdinals, "EUR", pivotRates(160.0), LocalDateTime.of(2025, 3, 1, 12, 0)));
+        doNothing().doThrow(new DataAccessResourceFailureException("connection lost")).doNothing()
+                .when(exchangeRateRepository).saveRefresh(any());
+
+        changedOnlyService.updateExchangeRates();
+        assertThrows(DataAccessResourceFailureException.class, changedOnlyService::updateExchangeRates);
+        changedOnlyService.updateExchangeRates();
+
+        ArgumentCaptor<List<ExchangeRate>> saved = ArgumentCaptor.forClass(List.class);
+        verify(exchangeRateRepository, times(3)).saveRefresh(saved.capture());
+        ExchangeRate retried = saved.getAllValues().get(2).get(0);
+        assertTrue(retried.isPartial());
+        assertEquals(160.0, retried.getRates().get("JPY").asDouble());
+    }
+
+    private static ObjectNode pivotRates(double jpy) {
+        ObjectNode pivotRates = JsonNodeFactory.instance.objectNode();
+        pivotRates.put("EUR", 1.0);
+        pivotRates.put("USD", 1.25);
+        pivotRates.put("JPY", jpy);
+        return pivotRates;
+    }
+
+    @Test
+    void testReloadLatestExchangeRatesPublishesProjection() {
+        Currency usd = new Currency("USD");
+        Currency eur = new Currency("EUR");
+        ObjectNode rates = JsonNodeFactory.instance.objectNode();
+        rates.put("EUR", 0.8);
+        when(currencyService.getAllCurrencies()).thenReturn(List.of(usd, eur));
+        when(latestExchangeRateRepository.findByCurrencyIn(List.of(usd, eur))).thenReturn(List.of(
+                new LatestExchangeRate(usd, 1L, rates, LocalDateTime.now()),
+                new LatestExchangeRate(eur, 2L, null, LocalDateTime.now())));
+
+        int reloaded = exchangeRateService.reloadLatestExchangeRates();
+
+        assertEquals(2, reloaded);
+        assertEquals(0.8, ((RateTable) exchangeRateCache.get("USD").get()).getRate("EUR"));
+        assertNotNull(exchangeRateCache.get("EUR"));
+        verify(rateDeltaCalculator, times(2)).publish(any(RateTable.class));
+        verify(eventPublisher).publishEvent(any(RatesUpdatedEvent.class));
+        verify(externalApiService, never()).fetchExchangeRate(any(Currency.class));
+    }
+
+    @Test
+    void testConvert() {
+        Currency currency = new Currency("USD");
+        ObjectNode rates = JsonNodeFactory.instance.objectNode();
+        rates.put("JPY", 150.0);
+        when(currencyService.getCurrencyByCode("USD")).thenReturn(currency);
+        exchangeRateCache.put("USD", RateTable.of(currencyOrdinals, new ExchangeRate(currency, rates, LocalDateTime.now())));
+
+        Conversion conversion = exchangeRateService.convert("USD", "jpy", new BigDecimal("100"));
+
+        assertEquals("JPY", conversion.to());
+        assertEquals(150.0, conversion.rate());
+        assertEquals(new BigDecimal("15000"), conversion.result());
+        assertThrows(CurrencyNotFoundException.class, () -> exchangeRateService.convert("USD", "XYZ", BigDecimal.ONE));
+    }
+
+    @Test
+    void testConvertRoundsToMinorUnitsOfTheQuote() {
+        Currency currency = new Currency("USD");
+        ObjectNode rates = JsonNodeFactory.instance.objectNode();
+        rates.put("EUR", 0.923456);
+        rates.put("BHD", 0.376);
+        rates.put("XAU", 0.000426);
+        when(currencyService.getCurrencyByCode("USD")).thenReturn(currency);
+        exchangeRateCache.put("USD", RateTable.of(currencyOrdinals, new ExchangeRate(currency, rates, LocalDateTime.now())));
+
+        assertEquals(new BigDecimal("0.30"), exchangeRateService.convert("USD", "EUR", new BigDecimal("0.325")).result());
+        assertEquals(new BigDecimal("1.033"), exchangeRateService.convert("USD", "BHD", new BigDecimal("2.7475")).result());
+        assertEquals(new BigDecimal("0.04260000"), exchangeRateService.convert("USD", "XAU", new BigDecimal("100")).result());
+    }
+
+    @Test
+    void testConvertLoadsTableOnceOnCacheMiss() {
+        Currency usd = new Currency("USD");
+        ObjectNode rates = JsonNodeFactory.instance.objectNode();
+        rates.put("JPY", 150.0);
+        when(currencyService.getCurrencyByCode("USD")).thenReturn(usd);
+        when(latestExchangeRateRepository.findByCurrency(usd))
+                .thenReturn(new LatestExchangeRate(usd, 1L, rates, LocalDateTime.now()));
+
+        Conversion first = exchangeRateService.convert("USD", "jpy", new BigDecimal("2"));
+        Conversion second = exchangeRateService.convert("USD", "JPY", new BigDecimal("3"));
+
+        assertEquals(new BigDecimal("300"), first.result());
+        assertEquals(new BigDecimal("450"), second.result());
+        assertNotNull(exchangeRateCache.get("USD"));
+        verify(latestExchangeRateRepository, times(1)).findByCurrency(usd);
+        verify(currencyService, times(2)).getCurrencyByCode("USD");
+        verify(externalApiService, never()).fetchExchangeRate(any(Currency.class));
+    }
+
+    @Test
+    void testGetExchangeRatesLoadsMissesWithOneQuery() {
+        Currency usd = new Currency("USD");
+        Currency eur = new Currency("EUR");
+        when(currencyService.getCurrencyByCode("USD")).thenReturn(usd);
+        when(currencyService.getCurrencyByCode("EUR")).thenReturn(eur);
+        exchangeRateCache.put("USD", RateTable.of(currencyOrdinals, new ExchangeRate(usd, null, LocalDateTime.now())));
+        when(latestExchangeRateRepository.findByCurrencyIn(any()))
+                .thenReturn(List.of(new LatestExchangeRate(eur, 1L, null, LocalDateTime.now())));
+
+        Map<String, RateTable> result = exchangeRateService.getExchangeRates(List.of("USD", "EUR", "USD"));
+
+        assertEquals(List.of("USD", "EUR"), List.copyOf(result.keySet()));
+        assertEquals("EUR", result.get("EUR").getBaseCode());
+        assertNotNull(exchangeRateCache.get("EUR"));
+        verify(latestExchangeRateRepository, times(1)).findByCurrencyIn(any());
+        verify(externalApiService, never()).fetchExchangeRate(any(Currency.class));
+    }
 }
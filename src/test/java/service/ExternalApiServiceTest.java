@@ -1,34 +1,38 @@
 package service;
 
-import com.fasterxml.jackson.databind.JsonNode;
-import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.example.client.JsonStreamHandler;
+import org.example.client.UpstreamClient;
 import org.example.entity.Currency;
-import org.example.entity.ExchangeRate;
 import org.example.exception.ExternalApiException;
+import org.example.model.CurrencyOrdinals;
+import org.example.model.RateTable;
 import org.example.service.ExternalApiService;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
-import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.MockitoAnnotations;
 import org.springframework.beans.factory.annotation.Value;
-import org.springframework.web.client.RestTemplate;
 
 import java.util.List;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
 import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.Mockito.any;
 import static org.mockito.Mockito.anyString;
-import static org.mockito.Mockito.eq;
 import static org.mockito.Mockito.when;
 
 class ExternalApiServiceTest {
 
+    private final CurrencyOrdinals currencyOrdinals = CurrencyOrdinals.withIsoCodes(List.of(), 512);
+
     @Mock
-    private RestTemplate restTemplate;
+    private UpstreamClient upstreamClient;
 
-    @InjectMocks
     private ExternalApiService externalApiService;
 
     @Value("${external.api.url}")
@@ -40,20 +44,17 @@ class ExternalApiServiceTest {
     @Value("${external.api.access_key}")
     private String accessKey = "test_access_key";
 
-    private ObjectMapper objectMapper = new ObjectMapper();
-
     @BeforeEach
     void setUp() {
         MockitoAnnotations.openMocks(this);
-        externalApiService = new ExternalApiService(restTemplate, externalApiUrl, externalApiSymbolsUrl, accessKey);
+        externalApiService = new ExternalApiService(upstreamClient, currencyOrdinals, externalApiUrl, externalApiSymbolsUrl, accessKey,
+                new SimpleMeterRegistry());
     }
 
     @Test
     void testFetchAllCurrencies_Success() throws Exception {
         String jsonResponse = "{\"success\":true,\"symbols\":{\"USD\":\"United States Dollar\",\"EUR\":\"Euro\"}}";
-        JsonNode responseNode = objectMapper.readTree(jsonResponse);
-
-        when(restTemplate.getForObject(anyString(), eq(JsonNode.class))).thenReturn(responseNode);
+        respondWith(jsonResponse);
 
         List<Currency> currencies = externalApiService.fetchAllCurrencies();
 
@@ -65,9 +66,7 @@ class ExternalApiServiceTest {
     @Test
     void testFetchAllCurrencies_Failure() throws Exception {
         String jsonResponse = "{\"success\":false,\"error\":{\"code\":101,\"type\":\"missing_access_key\"}}";
-        JsonNode responseNode = objectMapper.readTree(jsonResponse);
-
-        when(restTemplate.getForObject(anyString(), eq(JsonNode.class))).thenReturn(responseNode);
+        respondWith(jsonResponse);
 
         assertThrows(ExternalApiException.class, () -> externalApiService.fetchAllCurrencies());
     }
@@ -76,24 +75,45 @@ class ExternalApiServiceTest {
     void testFetchExchangeRate_Success() throws Exception {
         Currency currency = new Currency("USD");
         String jsonResponse = "{\"success\":true,\"rates\":{\"USD\":0.85}}";
-        JsonNode responseNode = objectMapper.readTree(jsonResponse);
+        respondWith(jsonResponse);
+
+        RateTable rateTable = externalApiService.fetchExchangeRate(currency);
 
-        when(restTemplate.getForObject(anyString(), eq(JsonNode.class))).thenReturn(responseNode);
+        assertNotNull(rateTable);
+        assertEquals("USD", rateTable.getBaseCode());
+        assertEquals(0.85, rateTable.getRate("USD"));
+    }
 
-        ExchangeRate exchangeRate = externalApiService.fetchExchangeRate(currency);
+    @Test
+    void testFetchExchangeRate_MissingBase() throws Exception {
+        Currency currency = new Currency("USD");
+        respondWith("{\"success\":true,\"timestamp\":1700000000,\"rates\":{\"EUR\":1.0,\"GBP\":0.87}}");
 
-        assertNotNull(exchangeRate);
-        assertEquals(currency, exchangeRate.getCurrency());
+        assertThrows(ExternalApiException.class, () -> externalApiService.fetchExchangeRate(currency));
     }
 
     @Test
     void testFetchExchangeRate_Failure() throws Exception {
         Currency currency = new Currency("USD");
         String jsonResponse = "{\"success\":false,\"error\":{\"code\":101,\"type\":\"invalid_access_key\"}}";
-        JsonNode responseNode = objectMapper.readTree(jsonResponse);
-
-        when(restTemplate.getForObject(anyString(), eq(JsonNode.class))).thenReturn(responseNode);
+        respondWith(jsonResponse);
 
         assertThrows(ExternalApiException.class, () -> externalApiService.fetchExchangeRate(currency));
     }
+
+    /**
+     * Feeds {@code json} token by token to whatever handler the service passes to the client.
+     */
+    private void respondWith(String json) {
+        when(upstreamClient.get(anyString(), any())).thenAnswer(invocation -> {
+            JsonStreamHandler<?> handler = invocation.getArgument(1);
+            try (JsonParser parser = new JsonFactory().createParser(json)) {
+                JsonToken token;
+                while ((token = parser.nextToken()) != null) {
+                    handler.onToken(parser, token);
+                }
+            }
+            return handler.getResult();
+        });
+    }
 }
@@ -0,0 +1,136 @@
+package service;
+
+import org.example.entity.SchedulerLease;
+import org.example.repository.ExchangeRateRepository;
+import org.example.repository.SchedulerLeaseRepository;
+import org.example.service.ExchangeRateService;
+import org.example.service.LeaderElectionService;
+import org.example.service.RatesRefreshedListener;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.domain.EntityScan;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.data.jpa.repository.config.EnableJpaRepositories;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.testcontainers.containers.PostgreSQLContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.awaitility.Awaitility.await;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * Runs the lease SQL and the LISTEN/NOTIFY path against a real Postgres, migrated by Liquibase. Needs Docker.
+ */
+@DataJpaTest
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+@Testcontainers(disabledWithoutDocker = true)
+class LeaderElectionIntegrationTest {
+
+    @Container
+    private static final PostgreSQLContainer<?> POSTGRES = new PostgreSQLContainer<>("postgres:15");
+
+    @DynamicPropertySource
+    static void properties(DynamicPropertyRegistry registry) {
+        registry.add("spring.datasource.url", POSTGRES::getJdbcUrl);
+        registry.add("spring.datasource.username", POSTGRES::getUsername);
+        registry.add("spring.datasource.password", POSTGRES::getPassword);
+    }
+
+    @Configuration
+    @EntityScan(basePackageClasses = SchedulerLease.class)
+    @EnableJpaRepositories(basePackageClasses = SchedulerLeaseRepository.class)
+    static class JpaConfig {
+    }
+
+    @Autowired
+    private SchedulerLeaseRepository schedulerLeaseRepository;
+
+    @Autowired
+    private ExchangeRateRepository exchangeRateRepository;
+
+    private final ApplicationEventPublisher eventPublisher = mock(ApplicationEventPublisher.class);
+
+    @BeforeEach
+    void setUp() {
+        schedulerLeaseRepository.deleteAll();
+    }
+
+    @Test
+    void testOneReplicaHoldsTheLeaseUntilItExpires() {
+        LeaderElectionService first = new LeaderElectionService(schedulerLeaseRepository, true, 1000, eventPublisher);
+        LeaderElectionService second = new LeaderElectionService(schedulerLeaseRepository, true, 1000, eventPublisher);
+
+        first.renewLease();
+        second.renewLease();
+        assertTrue(first.isLeader());
+        assertFalse(second.isLeader());
+
+        first.renewLease();
+        assertTrue(first.isLeader());
+        List<SchedulerLease> leases = schedulerLeaseRepository.findAll();
+        assertEquals(1, leases.size());
+        assertEquals(first.getHolder(), leases.get(0).getHolder());
+
+        // the first replica stops renewing: the second one only gets the lease once the first has stepped down
+        await().atMost(Duration.ofSeconds(10)).until(() -> {
+            second.renewLease();
+            return second.isLeader();
+        });
+        assertFalse(first.isLeader());
+        first.renewLease();
+        assertFalse(first.isLeader());
+    }
+
+    @Test
+    void testReleasedLeaseIsTakenOverImmediately() {
+        LeaderElectionService first = new LeaderElectionService(schedulerLeaseRepository, true, 60000, eventPublisher);
+        LeaderElectionService second = new LeaderElectionService(schedulerLeaseRepository, true, 60000, eventPublisher);
+        first.renewLease();
+
+        first.releaseLease();
+        second.renewLease();
+
+        assertFalse(first.isLeader());
+        assertTrue(second.isLeader());
+    }
+
+    @Test
+    void testFollowerReloadsWhenRefreshIsCommitted() throws InterruptedException {
+        ExchangeRateService exchangeRateService = mock(ExchangeRateService.class);
+        CountDownLatch reloaded = new CountDownLatch(1);
+        when(exchangeRateService.reloadLatestExchangeRates()).thenAnswer(invocation -> {
+            reloaded.countDown();
+            return 0;
+        });
+        LeaderElectionService follower = new LeaderElectionService(schedulerLeaseRepository, true, 60000, eventPublisher);
+        RatesRefreshedListener listener = new RatesRefreshedListener(exchangeRateService, follower,
+                POSTGRES.getJdbcUrl(), POSTGRES.getUsername(), POSTGRES.getPassword(), true, 200, 100);
+        try {
+            await().atMost(Duration.ofSeconds(10)).until(listener::isListening);
+
+            exchangeRateRepository.saveRefresh(List.of());
+
+            assertTrue(reloaded.await(10, TimeUnit.SECONDS));
+        } finally {
+            listener.shutdown();
+        }
+    }
+}
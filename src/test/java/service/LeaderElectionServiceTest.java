@@ -0,0 +1,92 @@
+package service;
+
+import org.example.model.LeaseAcquiredEvent;
+import org.example.repository.SchedulerLeaseRepository;
+import org.example.service.LeaderElectionService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.DataAccessResourceFailureException;
+
+import java.time.Duration;
+
+import static org.awaitility.Awaitility.await;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class LeaderElectionServiceTest {
+
+    @Mock
+    private SchedulerLeaseRepository schedulerLeaseRepository;
+
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+    }
+
+    @Test
+    void testAcquiresAndLosesLease() {
+        LeaderElectionService service = new LeaderElectionService(schedulerLeaseRepository, true, 30000, eventPublisher);
+        assertFalse(service.isLeader());
+
+        when(schedulerLeaseRepository.tryAcquire(anyString(), eq(service.getHolder()), eq(30000L)))
+                .thenReturn(service.getHolder());
+        service.renewLease();
+        assertTrue(service.isLeader());
+        service.renewLease();
+        verify(eventPublisher, times(1)).publishEvent(any(LeaseAcquiredEvent.class));
+
+        when(schedulerLeaseRepository.tryAcquire(anyString(), anyString(), anyLong())).thenReturn(null);
+        service.renewLease();
+        assertFalse(service.isLeader());
+    }
+
+    @Test
+    void testKeepsLeaseUntilItRunsOutWhenRenewalFails() {
+        LeaderElectionService service = new LeaderElectionService(schedulerLeaseRepository, true, 200, eventPublisher);
+        when(schedulerLeaseRepository.tryAcquire(anyString(), anyString(), anyLong())).thenReturn(service.getHolder());
+        service.renewLease();
+
+        when(schedulerLeaseRepository.tryAcquire(anyString(), anyString(), anyLong()))
+                .thenThrow(new DataAccessResourceFailureException("connection refused"));
+        service.renewLease();
+        assertTrue(service.isLeader());
+
+        await().atMost(Duration.ofSeconds(5)).until(() -> !service.isLeader());
+    }
+
+    @Test
+    void testReleasesHeldLeaseOnShutdown() {
+        LeaderElectionService service = new LeaderElectionService(schedulerLeaseRepository, true, 30000, eventPublisher);
+        when(schedulerLeaseRepository.tryAcquire(anyString(), anyString(), anyLong())).thenReturn(service.getHolder());
+        service.renewLease();
+
+        service.releaseLease();
+
+        assertFalse(service.isLeader());
+        verify(schedulerLeaseRepository).release(anyString(), eq(service.getHolder()));
+    }
+
+    @Test
+    void testDisabledElectionAlwaysLeads() {
+        LeaderElectionService service = new LeaderElectionService(schedulerLeaseRepository, false, 30000, eventPublisher);
+
+        service.renewLease();
+
+        assertTrue(service.isLeader());
+        verify(schedulerLeaseRepository, never()).tryAcquire(any(), any(), anyLong());
+    }
+}
@@ -0,0 +1,63 @@
+package service;
+
+import org.example.repository.ExchangeRateDailyRepository;
+import org.example.repository.ExchangeRateRepository;
+import org.example.repository.RateQuoteRepository;
+import org.example.service.PartitionMaintenanceService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+
+import java.time.LocalDate;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyBoolean;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+class PartitionMaintenanceServiceTest {
+
+    @Mock
+    private ExchangeRateRepository exchangeRateRepository;
+
+    @Mock
+    private ExchangeRateDailyRepository exchangeRateDailyRepository;
+
+    @Mock
+    private RateQuoteRepository rateQuoteRepository;
+
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+    }
+
+    @Test
+    void testMaintainCreatesPartitionsRollsUpAndAppliesRetention() {
+        PartitionMaintenanceService service = new PartitionMaintenanceService(
+                exchangeRateRepository, exchangeRateDailyRepository, rateQuoteRepository, 2, 2, 6, true, 24);
+
+        service.maintain(LocalDate.of(2024, 1, 17));
+
+        verify(exchangeRateRepository).createPartition(LocalDate.of(2024, 1, 1));
+        verify(exchangeRateRepository).createPartition(LocalDate.of(2024, 2, 1));
+        verify(exchangeRateRepository).createPartition(LocalDate.of(2024, 3, 1));
+        verify(exchangeRateRepository, times(3)).createPartition(any());
+        verify(exchangeRateDailyRepository).rollUp(LocalDate.of(2024, 1, 15), LocalDate.of(2024, 1, 18));
+        verify(exchangeRateRepository).dropPartitionsBefore(LocalDate.of(2023, 7, 1), true);
+        verify(rateQuoteRepository).dropPartitionsBefore(LocalDate.of(2022, 1, 1));
+    }
+
+    @Test
+    void testZeroRetentionKeepsAllPartitions() {
+        PartitionMaintenanceService service = new PartitionMaintenanceService(
+                exchangeRateRepository, exchangeRateDailyRepository, rateQuoteRepository, 0, 1, 0, false, 0);
+
+        service.maintain(LocalDate.of(2024, 1, 17));
+
+        verify(exchangeRateRepository, times(1)).createPartition(LocalDate.of(2024, 1, 1));
+        verify(exchangeRateRepository, never()).dropPartitionsBefore(any(), anyBoolean());
+        verify(rateQuoteRepository, never()).dropPartitionsBefore(any());
+    }
+}
@@ -0,0 +1,99 @@
+package service;
+
+import com.fasterxml.jackson.databind.node.JsonNodeFactory;
+import org.example.model.CurrencyOrdinals;
+import org.example.model.RateTable;
+import org.example.model.RateUpdate;
+import org.example.service.RateDeltaCalculator;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class RateDeltaCalculatorTest {
+
+    private static final LocalDateTime MORNING = LocalDateTime.of(2025, 3, 1, 9, 0);
+
+    private final CurrencyOrdinals currencyOrdinals = CurrencyOrdinals.withIsoCodes(List.of(), 512);
+
+    @Test
+    void testFirstDiffIsFullSnapshot() {
+        RateDeltaCalculator calculator = new RateDeltaCalculator(currencyOrdinals, 0, false);
+
+        RateUpdate update = calculator.diff(table(0.9, 150.0, MORNING));
+
+        assertTrue(update.full());
+        assertEquals(Map.of("EUR", 0.9, "JPY", 150.0), update.rates());
+    }
+
+    @Test
+    void testDiffDoesNotAdvanceUntilCommitted() {
+        RateDeltaCalculator calculator = new RateDeltaCalculator(currencyOrdinals, 0, false);
+        calculator.commit(calculator.diff(table(0.9, 150.0, MORNING)));
+
+        RateUpdate uncommitted = calculator.diff(table(0.9, 151.0, MORNING.plusHours(1)));
+        RateUpdate retried = calculator.diff(table(0.9, 151.0, MORNING.plusHours(2)));
+        calculator.commit(retried);
+
+        assertEquals(Map.of("JPY", 151.0), uncommitted.rates());
+        assertEquals(Map.of("JPY", 151.0), retried.rates());
+        assertTrue(calculator.diff(table(0.9, 151.0, MORNING.plusHours(3))).rates().isEmpty());
+    }
+
+    @Test
+    void testMovesBelowThresholdAccumulateUntilReported() {
+        RateDeltaCalculator calculator = new RateDeltaCalculator(currencyOrdinals, 0.01, false);
+        calculator.publish(table(1.0, 100.0, MORNING));
+
+        RateUpdate small = calculator.publish(table(1.0, 100.6, MORNING.plusHours(1)));
+        RateUpdate accumulated = calculator.publish(table(1.0, 101.2, MORNING.plusHours(2)));
+
+        assertTrue(small.rates().isEmpty());
+        assertFalse(small.full());
+        assertEquals(Map.of("JPY", 101.2), accumulated.rates());
+    }
+
+    @Test
+    void testChangedOnlyPersistenceStoresFirstSnapshotOfEachDayInFull() {
+        RateDeltaCalculator calculator = new RateDeltaCalculator(currencyOrdinals, 0, true);
+        RateUpdate first = calculator.diff(table(0.9, 150.0, MORNING));
+        assertFalse(calculator.persistsChangesOnly(first));
+        calculator.commit(first);
+
+        RateUpdate sameDay = calculator.diff(table(0.9, 151.0, MORNING.plusHours(1)));
+        assertTrue(calculator.persistsChangesOnly(sameDay));
+        calculator.commit(sameDay);
+
+        RateUpdate nextDay = calculator.diff(table(0.9, 151.0, MORNING.plusDays(1)));
+        assertFalse(nextDay.full());
+        assertFalse(calculator.persistsChangesOnly(nextDay));
+        calculator.commit(nextDay);
+
+        assertTrue(calculator.persistsChangesOnly(calculator.diff(table(0.9, 152.0, MORNING.plusDays(1).plusHours(1)))));
+    }
+
+    @Test
+    void testFullSnapshotsWhenChangedOnlyPersistenceIsOff() {
+        RateDeltaCalculator calculator = new RateDeltaCalculator(currencyOrdinals, 0, false);
+        calculator.commit(calculator.diff(table(0.9, 150.0, MORNING)));
+
+        assertFalse(calculator.persistsChangesOnly(calculator.diff(table(0.9, 151.0, MORNING.plusHours(1)))));
+    }
+
+    @Test
+    void testNegativeThresholdIsRejected() {
+        assertThrows(IllegalArgumentException.class, () -> new RateDeltaCalculator(currencyOrdinals, -0.1, false));
+    }
+
+    private RateTable table(double eur, double jpy, LocalDateTime timestamp) {
+        return RateTable.fromJson(currencyOrdinals, "USD", JsonNodeFactory.instance.objectNode()
+                .put("EUR", eur)
+                .put("JPY", jpy), timestamp);
+    }
+}
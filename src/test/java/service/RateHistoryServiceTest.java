@@ -0,0 +1,140 @@
+package service;
+
+import com.fasterxml.jackson.databind.node.JsonNodeFactory;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import org.example.entity.Currency;
+import org.example.entity.ExchangeRate;
+import org.example.exception.CurrencyNotFoundException;
+import org.example.exception.InvalidRangeException;
+import org.example.model.CurrencyOrdinals;
+import org.example.model.RatePoint;
+import org.example.model.RateTable;
+import org.example.model.RateUpdate;
+import org.example.repository.ExchangeRateRepository;
+import org.example.repository.RateQuoteRepository;
+import org.example.service.CurrencyService;
+import org.example.service.ExchangeRateService;
+import org.example.service.RateDeltaCalculator;
+import org.example.service.RateHistoryService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class RateHistoryServiceTest {
+
+    private final CurrencyOrdinals currencyOrdinals = CurrencyOrdinals.withIsoCodes(List.of(), 512);
+
+    @Mock
+    private ExchangeRateRepository exchangeRateRepository;
+
+    @Mock
+    private RateQuoteRepository rateQuoteRepository;
+
+    @Mock
+    private CurrencyService currencyService;
+
+    @Mock
+    private ExchangeRateService exchangeRateService;
+
+    private RateHistoryService rateHistoryService;
+
+    private final Currency usd = new Currency("USD");
+    private final Currency eur = new Currency("EUR");
+
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+        usd.setId(1L);
+        eur.setId(2L);
+        when(currencyService.getCurrencyByCode("USD")).thenReturn(usd);
+        when(currencyService.getCurrencyByCode("EUR")).thenReturn(eur);
+        rateHistoryService = new RateHistoryService(exchangeRateRepository, rateQuoteRepository, currencyService,
+                exchangeRateService, new RateDeltaCalculator(currencyOrdinals, 0.001, false), currencyOrdinals, 31);
+    }
+
+    @Test
+    void testGetRateAt() {
+        LocalDateTime at = LocalDateTime.of(2025, 3, 1, 14, 0);
+        RatePoint point = new RatePoint(at.minusMinutes(20), new BigDecimal("0.9512"));
+        when(rateQuoteRepository.findFirstByBaseCurrencyIdAndQuoteCurrencyIdAndTimestampLessThanEqualOrderByTimestampDesc(1L, 2L, at))
+                .thenReturn(point);
+
+        assertEquals(point, rateHistoryService.getRateAt("USD", "EUR", at));
+        assertThrows(CurrencyNotFoundException.class, () -> rateHistoryService.getRateAt("USD", "EUR", at.minusYears(1)));
+    }
+
+    @Test
+    void testGetExchangeRateAt() {
+        LocalDateTime at = LocalDateTime.of(2025, 3, 1, 14, 0);
+        when(exchangeRateRepository.findFirstByCurrencyAndTimestampLessThanEqualOrderByTimestampDesc(usd, at))
+                .thenReturn(new ExchangeRate(usd, null, at.minusMinutes(20)));
+
+        RateTable rateTable = rateHistoryService.getExchangeRateAt("USD", at);
+
+        assertEquals("USD", rateTable.getBaseCode());
+        assertEquals(at.minusMinutes(20), rateTable.getTimestamp());
+    }
+
+    @Test
+    void testGetExchangeRateAtRebuildsFromQuotesPastSnapshotRetention() {
+        LocalDateTime at = LocalDateTime.of(2023, 3, 1, 14, 0);
+        LocalDateTime snapshotTime = at.minusMinutes(20);
+        when(rateQuoteRepository.findLatestQuotesAt(1L, at)).thenReturn(List.of(
+                new Object[]{"EUR", new BigDecimal("0.92"), snapshotTime.minusHours(3)},
+                new Object[]{"JPY", new BigDecimal("150.5"), snapshotTime}));
+
+        RateTable rateTable = rateHistoryService.getExchangeRateAt("USD", at);
+
+        assertEquals(snapshotTime, rateTable.getTimestamp());
+        assertEquals(0.92, rateTable.getRate("EUR"));
+        assertEquals(150.5, rateTable.getRate("JPY"));
+    }
+
+    @Test
+    void testGetChangesSinceReportsSignificantMovesOnly() {
+        LocalDateTime since = LocalDateTime.of(2025, 3, 1, 14, 0);
+        when(exchangeRateRepository.findFirstByCurrencyAndTimestampLessThanEqualOrderByTimestampDesc(usd, since))
+                .thenReturn(new ExchangeRate(usd, rates(0.9, 150.0), since.minusMinutes(5)));
+        when(exchangeRateService.getExchangeRate("USD"))
+                .thenReturn(RateTable.of(currencyOrdinals, new ExchangeRate(usd, rates(0.90001, 151.0), since.plusHours(2))));
+
+        RateUpdate changes = rateHistoryService.getChangesSince("USD", since);
+
+        assertEquals(Map.of("JPY", 151.0), changes.rates());
+        assertFalse(changes.full());
+    }
+
+    @Test
+    void testGetRateHistoryRejectsInvalidRanges() {
+        LocalDateTime from = LocalDateTime.of(2025, 3, 1, 0, 0);
+
+        assertThrows(InvalidRangeException.class, () -> rateHistoryService.getRateHistory("USD", "EUR", from, from.minusDays(1)));
+        assertThrows(InvalidRangeException.class, () -> rateHistoryService.getRateHistory("USD", "EUR", from, from.plusDays(32)));
+        verify(rateQuoteRepository, never()).findByBaseCurrencyIdAndQuoteCurrencyIdAndTimestampBetweenOrderByTimestamp(any(), any(), any(), any());
+
+        when(rateQuoteRepository.findByBaseCurrencyIdAndQuoteCurrencyIdAndTimestampBetweenOrderByTimestamp(1L, 2L, from, from.plusDays(1)))
+                .thenReturn(List.of(new RatePoint(from, BigDecimal.ONE)));
+        assertEquals(1, rateHistoryService.getRateHistory("USD", "EUR", from, from.plusDays(1)).size());
+    }
+
+    private static ObjectNode rates(double eur, double jpy) {
+        ObjectNode rates = JsonNodeFactory.instance.objectNode();
+        rates.put("EUR", eur);
+        rates.put("JPY", jpy);
+        return rates;
+    }
+}
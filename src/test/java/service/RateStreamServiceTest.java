@@ -0,0 +1,200 @@
+package service;
+
+import com.fasterxml.jackson.databind.node.JsonNodeFactory;
+import org.example.model.CurrencyOrdinals;
+import org.example.model.RateTable;
+import org.example.model.RateUpdate;
+import org.example.model.RatesUpdatedEvent;
+import org.example.service.RateStreamService;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.web.servlet.mvc.method.annotation.ResponseBodyEmitter;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+
+import static org.awaitility.Awaitility.await;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class RateStreamServiceTest {
+
+    private static final LocalDateTime MORNING = LocalDateTime.of(2025, 3, 1, 9, 0);
+
+    private final CurrencyOrdinals currencyOrdinals = CurrencyOrdinals.withIsoCodes(List.of(), 512);
+
+    private final CountDownLatch sendsReleased = new CountDownLatch(0);
+
+    private RateStreamService rateStreamService;
+
+    @AfterEach
+    void tearDown() {
+        rateStreamService.shutdown();
+    }
+
+    @Test
+    void testSubscriberLimit() {
+        rateStreamService = newService(16, 2, 60000, sendsReleased);
+
+        assertNotNull(rateStreamService.subscribe(Set.of("USD"), () -> List.of(usdTable())));
+        assertNotNull(rateStreamService.subscribe(Set.of(), List::of));
+        assertNull(rateStreamService.subscribe(Set.of(), List::of));
+        assertEquals(2, rateStreamService.getSubscriberCount());
+    }
+
+    @Test
+    void testSnapshotsPrecedeDeltasPublishedWhileTheyLoad() {
+        rateStreamService = newService(16, 4, 60000, sendsReleased);
+
+        RecordingEmitter emitter = (RecordingEmitter) rateStreamService.subscribe(Set.of("USD"), () -> {
+            rateStreamService.onRatesUpdated(new RatesUpdatedEvent(List.of(delta("USD", 0.95))));
+            return List.of(usdTable());
+        });
+
+        await().atMost(Duration.ofSeconds(5)).until(() -> emitter.updates().size() == 2);
+        assertTrue(emitter.updates().get(0).full());
+        assertEquals(delta("USD", 0.95), emitter.updates().get(1));
+    }
+
+    @Test
+    void testUpdatesFanOutToEverySubscriber() {
+        rateStreamService = newService(16, 4, 60000, sendsReleased);
+        RecordingEmitter first = (RecordingEmitter) rateStreamService.subscribe(Set.of(), List::of);
+        RecordingEmitter second = (RecordingEmitter) rateStreamService.subscribe(Set.of(), List::of);
+
+        rateStreamService.onRatesUpdated(new RatesUpdatedEvent(List.of(delta("USD", 0.95))));
+
+        await().atMost(Duration.ofSeconds(5)).until(() -> !first.updates().isEmpty() && !second.updates().isEmpty());
+        assertEquals(List.of(delta("USD", 0.95)), first.updates());
+        assertEquals(List.of(delta("USD", 0.95)), second.updates());
+    }
+
+    @Test
+    void testSubscriberReceivesOnlyItsBases() {
+        rateStreamService = newService(16, 4, 60000, sendsReleased);
+        RecordingEmitter emitter = (RecordingEmitter) rateStreamService.subscribe(Set.of("EUR"), List::of);
+
+        rateStreamService.onRatesUpdated(new RatesUpdatedEvent(List.of(delta("USD", 0.95), delta("EUR", 1.05))));
+
+        await().atMost(Duration.ofSeconds(5)).until(() -> !emitter.updates().isEmpty());
+        assertEquals(List.of(delta("EUR", 1.05)), emitter.updates());
+    }
+
+    @Test
+    void testSubscriberFallingBehindIsDisconnected() {
+        CountDownLatch blockedSends = new CountDownLatch(1);
+        rateStreamService = newService(2, 4, 60000, blockedSends);
+        RecordingEmitter emitter = (RecordingEmitter) rateStreamService.subscribe(Set.of(), List::of);
+
+        rateStreamService.onRatesUpdated(new RatesUpdatedEvent(List.of(
+                delta("USD", 0.91), delta("USD", 0.92), delta("USD", 0.93), delta("USD", 0.94))));
+
+        await().atMost(Duration.ofSeconds(5)).until(emitter::isCompleted);
+        assertEquals(1, rateStreamService.getOverflowedSubscriberCount());
+        assertEquals(0, rateStreamService.getSubscriberCount());
+        blockedSends.countDown();
+    }
+
+    @Test
+    void testIdleSubscriberReceivesHeartbeats() {
+        rateStreamService = newService(16, 4, 20, sendsReleased);
+        RecordingEmitter emitter = (RecordingEmitter) rateStreamService.subscribe(Set.of(), List::of);
+
+        await().atMost(Duration.ofSeconds(5)).until(() -> emitter.getHeartbeatCount() >= 2);
+        assertTrue(emitter.updates().isEmpty());
+        assertFalse(emitter.isCompleted());
+    }
+
+    @Test
+    void testFailedSnapshotLoadReleasesTheSlot() {
+        rateStreamService = newService(16, 1, 60000, sendsReleased);
+
+        assertThrows(IllegalStateException.class, () -> rateStreamService.subscribe(Set.of("USD"), () -> {
+            throw new IllegalStateException("cache unavailable");
+        }));
+
+        assertEquals(0, rateStreamService.getSubscriberCount());
+        assertNotNull(rateStreamService.subscribe(Set.of(), List::of));
+    }
+
+    private RateStreamService newService(int subscriberBufferSize, int maxSubscribers, long heartbeatMillis,
+                                         CountDownLatch sendsReleased) {
+        return new RateStreamService(4, subscriberBufferSize, maxSubscribers, 60000, heartbeatMillis) {
+            @Override
+            protected SseEmitter newEmitter(long timeoutMillis) {
+                return new RecordingEmitter(timeoutMillis, sendsReleased);
+            }
+        };
+    }
+
+    private RateTable usdTable() {
+        return RateTable.fromJson(currencyOrdinals, "USD", JsonNodeFactory.instance.objectNode()
+                .put("EUR", 0.9)
+                .put("JPY", 150.0), MORNING);
+    }
+
+    private static RateUpdate delta(String baseCode, double rate) {
+        return new RateUpdate(baseCode, MORNING.plusHours(1), Map.of(baseCode.equals("USD") ? "EUR" : "USD", rate), false);
+    }
+
+    /**
+     * Records what the stream sends instead of writing it to a response; sends block until {@code released} opens.
+     */
+    private static final class RecordingEmitter extends SseEmitter {
+
+        private final CountDownLatch released;
+        private final List<RateUpdate> updates = new CopyOnWriteArrayList<>();
+        private volatile int heartbeatCount;
+        private volatile boolean completed;
+
+        RecordingEmitter(long timeoutMillis, CountDownLatch released) {
+            super(timeoutMillis);
+            this.released = released;
+        }
+
+        @Override
+        public void send(SseEventBuilder builder) throws IOException {
+            try {
+                released.await();
+            } catch (InterruptedException e) {
+                throw new InterruptedIOException("send interrupted");
+            }
+            for (ResponseBodyEmitter.DataWithMediaType data : builder.build()) {
+                if (data.getData() instanceof RateUpdate update) {
+                    updates.add(update);
+                } else if (data.getData() instanceof String text && text.startsWith(":heartbeat")) {
+                    heartbeatCount++;
+                }
+            }
+        }
+
+        @Override
+        public void complete() {
+            completed = true;
+        }
+
+        List<RateUpdate> updates() {
+            return updates;
+        }
+
+        int getHeartbeatCount() {
+            return heartbeatCount;
+        }
+
+        boolean isCompleted() {
+            return completed;
+        }
+    }
+}
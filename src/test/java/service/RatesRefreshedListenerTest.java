@@ -0,0 +1,49 @@
+package service;
+
+import org.example.service.ExchangeRateService;
+import org.example.service.LeaderElectionService;
+import org.example.service.RatesRefreshedListener;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class RatesRefreshedListenerTest {
+
+    @Mock
+    private ExchangeRateService exchangeRateService;
+
+    @Mock
+    private LeaderElectionService leaderElectionService;
+
+    private RatesRefreshedListener listener;
+
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+        listener = new RatesRefreshedListener(exchangeRateService, leaderElectionService,
+                "jdbc:postgresql://localhost/unused", "user", "password", false, 1000, 1000);
+    }
+
+    @Test
+    void testFollowerReloadsLatestRates() {
+        when(leaderElectionService.isLeader()).thenReturn(false);
+
+        assertTrue(listener.onRatesRefreshed());
+        verify(exchangeRateService).reloadLatestExchangeRates();
+    }
+
+    @Test
+    void testLeaderIgnoresItsOwnRefresh() {
+        when(leaderElectionService.isLeader()).thenReturn(true);
+
+        assertFalse(listener.onRatesRefreshed());
+        verify(exchangeRateService, never()).reloadLatestExchangeRates();
+    }
+}
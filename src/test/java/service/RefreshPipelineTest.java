@@ -0,0 +1,77 @@
+package service;
+
+import io.github.resilience4j.ratelimiter.RateLimiterConfig;
+import io.github.resilience4j.ratelimiter.RateLimiterRegistry;
+import org.example.entity.Currency;
+import org.example.exception.ExternalApiException;
+import org.example.model.RefreshCycleStats;
+import org.example.service.RefreshPipeline;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class RefreshPipelineTest {
+
+    private static List<Currency> currencies(int count) {
+        List<Currency> currencies = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            currencies.add(new Currency("C" + (char) ('A' + i / 26) + (char) ('A' + i % 26)));
+        }
+        return currencies;
+    }
+
+    @Test
+    void testConcurrencyLimitAndBatchedPublication() {
+        RefreshPipeline pipeline = new RefreshPipeline(RateLimiterRegistry.ofDefaults(), 3, 4);
+        AtomicInteger inFlight = new AtomicInteger();
+        AtomicInteger maxInFlight = new AtomicInteger();
+        List<List<String>> batches = new CopyOnWriteArrayList<>();
+
+        RefreshCycleStats stats = pipeline.run(currencies(10), currency -> {
+            maxInFlight.accumulateAndGet(inFlight.incrementAndGet(), Math::max);
+            try {
+                Thread.sleep(20);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            inFlight.decrementAndGet();
+            return currency.getCode();
+        }, batches::add);
+
+        assertTrue(maxInFlight.get() <= 3, "max in flight was " + maxInFlight.get());
+        assertEquals(10, stats.succeeded());
+        assertEquals(3, batches.size());
+        assertEquals(10, batches.stream().mapToInt(List::size).sum());
+    }
+
+    @Test
+    void testFailedAndThrottledFetchesAreCounted() {
+        RateLimiterConfig config = RateLimiterConfig.custom()
+                .limitForPeriod(3)
+                .limitRefreshPeriod(Duration.ofMinutes(10))
+                .timeoutDuration(Duration.ZERO)
+                .build();
+        RefreshPipeline pipeline = new RefreshPipeline(RateLimiterRegistry.of(config), 1, 10);
+        List<String> published = new ArrayList<>();
+
+        RefreshCycleStats stats = pipeline.run(currencies(5), currency -> {
+            if (currency.getCode().equals("CAA")) {
+                throw new ExternalApiException("boom");
+            }
+            return currency.getCode();
+        }, published::addAll);
+
+        assertEquals(3, stats.attempted());
+        assertEquals(2, stats.succeeded());
+        assertEquals(1, stats.failed());
+        assertEquals(2, stats.throttled());
+        assertEquals(2, published.size());
+    }
+}